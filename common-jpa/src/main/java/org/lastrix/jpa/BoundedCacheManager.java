@@ -0,0 +1,94 @@
+package org.lastrix.jpa;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.configuration.Configuration;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.Properties;
+
+/**
+ * Creates caches missing for Hibernate regions with limits of {@link SecondLevelCache} instead of unbounded ones.
+ */
+final class BoundedCacheManager implements CacheManager {
+    private final CacheManager delegate;
+    private final SecondLevelCache secondLevelCache;
+
+    BoundedCacheManager(CacheManager delegate, SecondLevelCache secondLevelCache) {
+        this.delegate = delegate;
+        this.secondLevelCache = secondLevelCache;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K, V, C extends Configuration<K, V>> Cache<K, V> createCache(String cacheName, C configuration) {
+        var cache = (Cache<K, V>) delegate.createCache(cacheName, secondLevelCache.configuration(cacheName));
+        secondLevelCache.created(cache);
+        return cache;
+    }
+
+    @Override
+    public CachingProvider getCachingProvider() {
+        return delegate.getCachingProvider();
+    }
+
+    @Override
+    public URI getURI() {
+        return delegate.getURI();
+    }
+
+    @Override
+    public ClassLoader getClassLoader() {
+        return delegate.getClassLoader();
+    }
+
+    @Override
+    public Properties getProperties() {
+        return delegate.getProperties();
+    }
+
+    @Override
+    public <K, V> Cache<K, V> getCache(String cacheName, Class<K> keyType, Class<V> valueType) {
+        return delegate.getCache(cacheName, keyType, valueType);
+    }
+
+    @Override
+    public <K, V> Cache<K, V> getCache(String cacheName) {
+        return delegate.getCache(cacheName);
+    }
+
+    @Override
+    public Iterable<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    @Override
+    public void destroyCache(String cacheName) {
+        delegate.destroyCache(cacheName);
+    }
+
+    @Override
+    public void enableManagement(String cacheName, boolean enabled) {
+        delegate.enableManagement(cacheName, enabled);
+    }
+
+    @Override
+    public void enableStatistics(String cacheName, boolean enabled) {
+        delegate.enableStatistics(cacheName, enabled);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return delegate.isClosed();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> clazz) {
+        return clazz.isInstance(this) ? clazz.cast(this) : delegate.unwrap(clazz);
+    }
+}
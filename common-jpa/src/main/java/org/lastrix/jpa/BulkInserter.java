@@ -0,0 +1,54 @@
+package org.lastrix.jpa;
+
+import org.lastrix.rest.EntityMapper;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+
+/**
+ * Inserts many entities in one transaction keeping the persistence context small: it is flushed, which sends
+ * batches of inserts, and cleared after every chunk. Entities of the caller become detached as well.
+ */
+public class BulkInserter {
+    private final EntityManager entityManager;
+    private final int chunkSize;
+
+    public BulkInserter(EntityManager entityManager, int chunkSize) {
+        if (chunkSize <= 0) throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        this.entityManager = entityManager;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @return number of inserted entities
+     */
+    @Transactional
+    public <E, D> int insert(Iterable<D> items, EntityMapper<E, D> mapper) {
+        var count = 0;
+        for (var item : items) {
+            entityManager.persist(mapper.fromDto(item));
+            if (++count % chunkSize == 0) flushAndClear();
+        }
+        flushAndClear();
+        return count;
+    }
+
+    /**
+     * @return number of inserted entities
+     */
+    @Transactional
+    public <E> int insert(Iterable<E> entities) {
+        var count = 0;
+        for (var entity : entities) {
+            entityManager.persist(entity);
+            if (++count % chunkSize == 0) flushAndClear();
+        }
+        flushAndClear();
+        return count;
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,25 @@
+package org.lastrix.jpa;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits of the second level cache region of the entity and its collections, defaults of
+ * 'mafp.jpa.cache.*' are used for the ones not set. Regions listed in 'mafp.jpa.cache.regions' take those settings.
+ * The entity must be cached as well, e.g. with {@link javax.persistence.Cacheable}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CacheRegion {
+    /**
+     * Time to live of entries in seconds.
+     */
+    long ttl() default -1L;
+
+    /**
+     * Max number of entries.
+     */
+    long maxSize() default -1L;
+}
@@ -0,0 +1,24 @@
+package org.lastrix.jpa;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+final class CachedCountStrategy implements CountStrategy {
+    private final CountStrategy delegate;
+    private final Cache<String, Long> counts;
+
+    CachedCountStrategy(CountStrategy delegate, Duration ttl, long maxSize) {
+        this.delegate = delegate;
+        this.counts = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    @Override
+    public long count(CountQuery query) {
+        return counts.get(query.getKey(), key -> delegate.count(query));
+    }
+}
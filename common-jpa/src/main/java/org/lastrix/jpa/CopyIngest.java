@@ -0,0 +1,169 @@
+package org.lastrix.jpa;
+
+import org.lastrix.rest.EntityMapper;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Loads rows with Postgres COPY, several times faster than batched inserts. Rows are pulled from the iterator
+ * and encoded into a buffer of {@code bufferSize} bytes sent when full, so the memory used does not depend on
+ * the number of rows and a slow database slows down reading rows instead of piling them up.
+ * <p>
+ * Runs in the current transaction, the persistence context does not see copied rows until it is cleared.
+ * Points in time are written in {@code zone}, which must be the JDBC time zone of Hibernate, see {@link CsvRowEncoder}.
+ */
+public class CopyIngest {
+    private static final AtomicLong STAGING = new AtomicLong();
+
+    private final DataSource dataSource;
+    private final int bufferSize;
+    private final ZoneId zone;
+
+    public CopyIngest(DataSource dataSource, int bufferSize) {
+        this(dataSource, bufferSize, ZoneId.systemDefault());
+    }
+
+    public CopyIngest(DataSource dataSource, int bufferSize, ZoneId zone) {
+        if (bufferSize <= 0) throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+        this.dataSource = dataSource;
+        this.bufferSize = bufferSize;
+        this.zone = zone;
+    }
+
+    /**
+     * @return number of copied rows
+     */
+    @Transactional
+    public <T> long copy(CopyTable<T> table, Iterator<? extends T> rows) {
+        return withConnection(connection -> copy(connection, table, table.getName(), rows));
+    }
+
+    @Transactional
+    public <T> long copy(CopyTable<T> table, Iterable<? extends T> rows) {
+        return withConnection(connection -> copy(connection, table, table.getName(), rows.iterator()));
+    }
+
+    @Transactional
+    public <E, D> long copy(CopyTable<E> table, Iterable<D> items, EntityMapper<E, D> mapper) {
+        return withConnection(connection -> copy(connection, table, table.getName(), mapped(items, mapper)));
+    }
+
+    /**
+     * Copies rows to a temporary table like the target one, then inserts them into the target;
+     * rows conflicting by the keys are updated or skipped.
+     *
+     * @param keys columns of a unique index of the table
+     * @return number of inserted or updated rows
+     */
+    @Transactional
+    public <T> long merge(CopyTable<T> table, Iterator<? extends T> rows, OnConflict onConflict, String... keys) {
+        if (keys.length == 0) throw new IllegalArgumentException("Merge into " + table.getName() + " requires keys");
+        for (var key : keys) {
+            if (!table.getColumns().contains(key)) {
+                throw new IllegalArgumentException("Merge key " + key + " is not copied to " + table.getName());
+            }
+        }
+        return withConnection(connection -> {
+            var staging = "copy_staging_" + STAGING.incrementAndGet();
+            try (var statement = connection.createStatement()) {
+                statement.execute("create temporary table " + staging + " (like " + table.getName()
+                        + " including defaults) on commit drop");
+                copy(connection, table, staging, rows);
+                return (long) statement.executeUpdate(mergeSql(table, staging, onConflict, List.of(keys)));
+            }
+        });
+    }
+
+    @Transactional
+    public <E, D> long merge(CopyTable<E> table, Iterable<D> items, EntityMapper<E, D> mapper, OnConflict onConflict,
+                             String... keys) {
+        return merge(table, mapped(items, mapper), onConflict, keys);
+    }
+
+    static String mergeSql(CopyTable<?> table, String staging, OnConflict onConflict, List<String> keys) {
+        var columns = table.columnList();
+        var sql = new StringBuilder("insert into ").append(table.getName()).append(" (").append(columns)
+                .append(") select ").append(columns).append(" from ").append(staging)
+                .append(" on conflict (").append(String.join(", ", keys)).append(") do ");
+        var updated = table.getColumns().stream().filter(c -> !keys.contains(c)).collect(Collectors.toList());
+        if (onConflict == OnConflict.IGNORE || updated.isEmpty()) return sql.append("nothing").toString();
+        sql.append("update set ");
+        for (int i = 0; i < updated.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append(updated.get(i)).append(" = excluded.").append(updated.get(i));
+        }
+        return sql.toString();
+    }
+
+    private <T> long copy(Connection connection, CopyTable<T> table, String target, Iterator<? extends T> rows)
+            throws SQLException {
+        var sql = "copy " + target + " (" + table.columnList() + ") from stdin with (format csv)";
+        var copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+        try {
+            var encoder = new CsvRowEncoder<T>(table.getValues(), zone);
+            var sb = new StringBuilder(bufferSize + 1024);
+            while (rows.hasNext()) {
+                encoder.encode(rows.next(), sb);
+                if (sb.length() >= bufferSize) write(copyIn, sb);
+            }
+            write(copyIn, sb);
+            return copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) copyIn.cancelCopy();
+        }
+    }
+
+    private static void write(CopyIn copyIn, StringBuilder sb) throws SQLException {
+        if (sb.length() == 0) return;
+        var bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        sb.setLength(0);
+    }
+
+    private long withConnection(ConnectionCallback callback) {
+        var connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            if (connection.getAutoCommit()) throw new IllegalStateException("Copy requires a transaction");
+            return callback.apply(connection);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Copy failed: " + e.getMessage(), e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private static <E, D> Iterator<E> mapped(Iterable<D> items, EntityMapper<E, D> mapper) {
+        var iterator = items.iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public E next() {
+                return mapper.fromDto(iterator.next());
+            }
+        };
+    }
+
+    public enum OnConflict {
+        UPDATE, IGNORE
+    }
+
+    @FunctionalInterface
+    private interface ConnectionCallback {
+        long apply(Connection connection) throws SQLException;
+    }
+}
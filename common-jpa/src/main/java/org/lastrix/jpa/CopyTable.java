@@ -0,0 +1,53 @@
+package org.lastrix.jpa;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Table and the columns rows are copied to by {@link CopyIngest}, with the values of each column.
+ */
+public final class CopyTable<T> {
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+
+    private final String name;
+    private final List<String> columns = new ArrayList<>();
+    private final List<Function<? super T, ?>> values = new ArrayList<>();
+
+    private CopyTable(String name) {
+        this.name = identifier(name);
+    }
+
+    public static <T> CopyTable<T> of(String name) {
+        return new CopyTable<>(name);
+    }
+
+    public CopyTable<T> column(String column, Function<? super T, ?> value) {
+        if (column.contains(".")) throw new IllegalArgumentException("Column name must not be qualified: " + column);
+        columns.add(identifier(column));
+        values.add(value);
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    List<String> getColumns() {
+        return columns;
+    }
+
+    List<Function<? super T, ?>> getValues() {
+        return values;
+    }
+
+    String columnList() {
+        return String.join(", ", columns);
+    }
+
+    static String identifier(String name) {
+        if (!IDENTIFIER.matcher(name).matches()) throw new IllegalArgumentException("Invalid identifier: " + name);
+        return name;
+    }
+}
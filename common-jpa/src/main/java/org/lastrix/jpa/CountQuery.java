@@ -0,0 +1,65 @@
+package org.lastrix.jpa;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Total of a list query for {@link CountStrategy}: how to count exactly and how to estimate it.
+ */
+public final class CountQuery {
+    private final String key;
+    private final LongSupplier exact;
+    private final String sql;
+    private final List<Object> parameters;
+    private final String table;
+
+    private CountQuery(String key, LongSupplier exact, String sql, List<Object> parameters, String table) {
+        this.key = key;
+        this.exact = exact;
+        this.sql = sql;
+        this.parameters = parameters;
+        this.table = table;
+    }
+
+    /**
+     * @param key   query name and filter values, counts are cached by it
+     * @param exact count query, e.g. {@code () -> repository.countByOwner(owner)}
+     */
+    public static CountQuery of(String key, LongSupplier exact) {
+        return new CountQuery(key, exact, null, List.of(), null);
+    }
+
+    /**
+     * Estimated by the plan of the native query, its parameters are positional.
+     */
+    public CountQuery withSql(String sql, Object... parameters) {
+        return new CountQuery(key, exact, sql, List.of(parameters), table);
+    }
+
+    /**
+     * Estimated by statistics of the table, for queries without filters.
+     */
+    public CountQuery withTable(String table) {
+        return new CountQuery(key, exact, sql, parameters, table);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long exact() {
+        return exact.getAsLong();
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public List<Object> getParameters() {
+        return parameters;
+    }
+
+    public String getTable() {
+        return table;
+    }
+}
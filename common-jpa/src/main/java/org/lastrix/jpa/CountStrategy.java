@@ -0,0 +1,46 @@
+package org.lastrix.jpa;
+
+import org.lastrix.rest.Pagination;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+
+/**
+ * How to get totals of list queries; a repository method returning {@link Slice} makes no count query,
+ * the strategy is asked for it when {@link Pagination#getTotals()} needs one.
+ */
+@FunctionalInterface
+public interface CountStrategy {
+
+    long count(CountQuery query);
+
+    static CountStrategy exact() {
+        return CountQuery::exact;
+    }
+
+    /**
+     * Postgres planner estimates, see {@link EstimatedCountStrategy}.
+     */
+    static CountStrategy estimated(EntityManager entityManager, long exactBelow) {
+        return new EstimatedCountStrategy(entityManager, exactBelow);
+    }
+
+    /**
+     * Counts of the delegate kept for the ttl by {@link CountQuery#getKey()}.
+     */
+    static CountStrategy cached(CountStrategy delegate, Duration ttl, long maxSize) {
+        return new CachedCountStrategy(delegate, ttl, maxSize);
+    }
+
+    /**
+     * @return page with totals as asked by the pagination, exact totals if asked by the client,
+     * the slice itself if totals are skipped. No count is made if the slice alone tells it, e.g. the last page.
+     */
+    default <T> Slice<T> page(Slice<T> slice, Pagination pagination, CountQuery query) {
+        if (pagination.getTotals() == Pagination.Totals.NONE) return slice;
+        var strategy = pagination.getTotals() == Pagination.Totals.EXACT ? exact() : this;
+        return PageableExecutionUtils.getPage(slice.getContent(), slice.getPageable(), () -> strategy.count(query));
+    }
+}
@@ -0,0 +1,70 @@
+package org.lastrix.jpa;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Row of Postgres COPY CSV format: nulls are empty unquoted values, texts are always quoted, so empty ones
+ * are not nulls; bytes are hex.
+ * <p>
+ * Points in time are written as Hibernate binds them: the local time of the JDBC time zone with its offset,
+ * so {@code timestamp} columns get the same local time as rows saved by JPA, and {@code timestamptz} ones
+ * the same instant.
+ */
+final class CsvRowEncoder<T> {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final List<Function<? super T, ?>> values;
+    private final ZoneId zone;
+
+    CsvRowEncoder(List<Function<? super T, ?>> values, ZoneId zone) {
+        this.values = values;
+        this.zone = zone;
+    }
+
+    void encode(T row, StringBuilder sb) {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) sb.append(',');
+            append(values.get(i).apply(row), sb);
+        }
+        sb.append('\n');
+    }
+
+    private void append(Object value, StringBuilder sb) {
+        if (value == null) return;
+        if (value instanceof Number || value instanceof Boolean) {
+            sb.append(value);
+        } else if (value instanceof byte[]) {
+            sb.append("\\x");
+            for (var b : (byte[]) value) sb.append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+        } else if (value instanceof Instant) {
+            quote(DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(((Instant) value).atZone(zone)), sb);
+        } else if (value instanceof OffsetDateTime) {
+            append(((OffsetDateTime) value).toInstant(), sb);
+        } else if (value instanceof ZonedDateTime) {
+            append(((ZonedDateTime) value).toInstant(), sb);
+        } else if (value instanceof Timestamp) {
+            append(((Timestamp) value).toInstant(), sb);
+        } else if (value instanceof Enum) {
+            quote(((Enum<?>) value).name(), sb);
+        } else {
+            quote(value.toString(), sb);
+        }
+    }
+
+    private static void quote(String text, StringBuilder sb) {
+        sb.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            var c = text.charAt(i);
+            if (c == '"') sb.append('"');
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+}
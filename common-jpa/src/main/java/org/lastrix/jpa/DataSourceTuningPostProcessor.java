@@ -0,0 +1,74 @@
+package org.lastrix.jpa;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * Tunes Hikari pools before they start, settings of the data source win:
+ * <ul>
+ * <li>makes the Postgres driver send a batch of inserts as multi-row statements, which is several times faster than
+ * a statement per row,</li>
+ * <li>sets statement caching of the Postgres driver if configured, negative values keep driver defaults,</li>
+ * <li>sizes pools with no size set to {@code poolSize} if it is positive,</li>
+ * <li>enables leak detection, the stack of a borrower holding a connection longer than the threshold is logged,</li>
+ * <li>tracks pools with {@link PoolMetrics}.</li>
+ * </ul>
+ */
+@Slf4j
+public class DataSourceTuningPostProcessor implements BeanPostProcessor {
+    private static final String REWRITE_BATCHED_INSERTS = "reWriteBatchedInserts";
+    private static final String PREPARE_THRESHOLD = "prepareThreshold";
+    private static final String PREPARED_STATEMENT_CACHE_QUERIES = "preparedStatementCacheQueries";
+
+    private final boolean rewriteBatchedInserts;
+    private final int prepareThreshold;
+    private final int preparedStatementCacheQueries;
+    private final int poolSize;
+    private final long leakThreshold;
+    private final PoolMetrics metrics;
+
+    public DataSourceTuningPostProcessor(boolean rewriteBatchedInserts, int prepareThreshold,
+                                         int preparedStatementCacheQueries, int poolSize, long leakThresholdMillis,
+                                         PoolMetrics metrics) {
+        this.rewriteBatchedInserts = rewriteBatchedInserts;
+        this.prepareThreshold = prepareThreshold;
+        this.preparedStatementCacheQueries = preparedStatementCacheQueries;
+        this.poolSize = poolSize;
+        this.leakThreshold = leakThresholdMillis;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource) tune((HikariDataSource) bean);
+        return bean;
+    }
+
+    void tune(HikariDataSource dataSource) {
+        // Hikari keeps -1 until the pool starts, then falls back to its default of 10
+        if (poolSize > 0 && dataSource.getMaximumPoolSize() < 1) {
+            log.info("Sizing pool {} to {} connections", dataSource.getJdbcUrl(), poolSize);
+            dataSource.setMaximumPoolSize(poolSize);
+        }
+        if (leakThreshold > 0L && dataSource.getLeakDetectionThreshold() == 0L) {
+            dataSource.setLeakDetectionThreshold(leakThreshold);
+        }
+        if (metrics != null && dataSource.getMetricRegistry() == null && dataSource.getMetricsTrackerFactory() == null) {
+            dataSource.setMetricsTrackerFactory(metrics);
+        }
+        var url = dataSource.getJdbcUrl();
+        if (url == null || !url.startsWith("jdbc:postgresql:")) return;
+        if (rewriteBatchedInserts) property(dataSource, REWRITE_BATCHED_INSERTS, "true");
+        if (prepareThreshold >= 0) property(dataSource, PREPARE_THRESHOLD, Integer.toString(prepareThreshold));
+        if (preparedStatementCacheQueries >= 0) {
+            property(dataSource, PREPARED_STATEMENT_CACHE_QUERIES, Integer.toString(preparedStatementCacheQueries));
+        }
+    }
+
+    private static void property(HikariDataSource dataSource, String name, String value) {
+        if (!dataSource.getDataSourceProperties().containsKey(name) && !dataSource.getJdbcUrl().contains(name)) {
+            dataSource.addDataSourceProperty(name, value);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.lastrix.jpa;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import java.util.regex.Pattern;
+
+/**
+ * Totals from Postgres statistics: the row estimate of the {@code EXPLAIN} plan of the query or
+ * {@code reltuples} of the table. Small estimates are imprecise and are counted exactly instead, as are queries
+ * with neither sql nor table and tables never analyzed.
+ */
+@Slf4j
+final class EstimatedCountStrategy implements CountStrategy {
+    private static final Pattern ROWS = Pattern.compile("rows=(\\d+)");
+
+    private final EntityManager entityManager;
+    private final long exactBelow;
+
+    EstimatedCountStrategy(EntityManager entityManager, long exactBelow) {
+        this.entityManager = entityManager;
+        this.exactBelow = exactBelow;
+    }
+
+    @Override
+    public long count(CountQuery query) {
+        Long estimate = null;
+        try {
+            if (query.getSql() != null) estimate = explain(query);
+            else if (query.getTable() != null) estimate = reltuples(query.getTable());
+        } catch (PersistenceException e) {
+            log.warn("Unable to estimate count of {}: {}", query.getKey(), e.getMessage());
+        }
+        return estimate == null || estimate < exactBelow ? query.exact() : estimate;
+    }
+
+    private Long explain(CountQuery query) {
+        var explain = entityManager.createNativeQuery("explain " + query.getSql());
+        var parameters = query.getParameters();
+        for (int i = 0; i < parameters.size(); i++) explain.setParameter(i + 1, parameters.get(i));
+        // setMaxResults would limit the explained query itself, the first row is the estimate of the whole query
+        var plan = explain.getResultList();
+        if (plan.isEmpty()) return null;
+        var matcher = ROWS.matcher(String.valueOf(plan.get(0)));
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : null;
+    }
+
+    private Long reltuples(String table) {
+        var rows = entityManager.createNativeQuery("select cast(reltuples as bigint) from pg_class where oid = to_regclass(?1)")
+                .setParameter(1, table)
+                .getResultList();
+        if (rows.isEmpty() || rows.get(0) == null) return null;
+        var estimate = ((Number) rows.get(0)).longValue();
+        // -1 or 0 until analyzed
+        return estimate > 0L ? estimate : null;
+    }
+}
@@ -0,0 +1,109 @@
+package org.lastrix.jpa;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.ZoneId;
+
+public class JpaAutoConfiguration {
+
+    /**
+     * Batches inserts and updates, ordered by entity so a flush makes few batches; explicit
+     * 'spring.jpa.properties' win. Entities with identity ids are never batched, see {@link SequenceEntity}.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer jpaBatchingCustomizer(@Value("${mafp.jpa.batch-size:50}") int batchSize) {
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, Integer.toString(batchSize));
+            properties.putIfAbsent(AvailableSettings.ORDER_INSERTS, "true");
+            properties.putIfAbsent(AvailableSettings.ORDER_UPDATES, "true");
+            properties.putIfAbsent(AvailableSettings.BATCH_VERSIONED_DATA, "true");
+            properties.putIfAbsent(AvailableSettings.PREFERRED_POOLED_OPTIMIZER, "pooled-lo");
+        };
+    }
+
+    /**
+     * Tunes Hikari pools, see {@link DataSourceTuningPostProcessor}. Pools are sized by 'mafp.jpa.pool.cores' and
+     * 'mafp.jpa.pool.spindles' of the database server as cores * 2 + spindles, if cores are set.
+     */
+    @Bean
+    public static DataSourceTuningPostProcessor dataSourceTuningPostProcessor(
+            PoolMetrics poolMetrics,
+            @Value("${mafp.jpa.rewrite-batched-inserts:true}") boolean rewriteBatchedInserts,
+            @Value("${mafp.jpa.pool.prepare-threshold:-1}") int prepareThreshold,
+            @Value("${mafp.jpa.pool.prepared-statement-cache-queries:-1}") int preparedStatementCacheQueries,
+            @Value("${mafp.jpa.pool.cores:0}") int cores,
+            @Value("${mafp.jpa.pool.spindles:1}") int spindles,
+            @Value("${mafp.jpa.pool.leak-threshold:0}") long leakThreshold) {
+        var poolSize = cores > 0 ? cores * 2 + spindles : 0;
+        return new DataSourceTuningPostProcessor(rewriteBatchedInserts, prepareThreshold, preparedStatementCacheQueries,
+                poolSize, leakThreshold, poolMetrics);
+    }
+
+    @Bean
+    public static PoolMetrics poolMetrics(@Value("${mafp.jpa.pool.slow-acquire:250}") long slowAcquire,
+                                          @Value("${mafp.jpa.pool.long-usage:10000}") long longUsage) {
+        return new PoolMetrics(Duration.ofMillis(slowAcquire), Duration.ofMillis(longUsage));
+    }
+
+    /**
+     * Sends read only transactions to replicas listed in 'mafp.jpa.replicas.urls', see {@link ReplicaRoutingDataSource}.
+     */
+    @Bean
+    public static ReplicaRoutingPostProcessor replicaRoutingPostProcessor(
+            DataSourceTuningPostProcessor tuning,
+            @Value("${mafp.jpa.replicas.urls:}") String[] urls,
+            @Value("${mafp.jpa.replicas.username:}") String username,
+            @Value("${mafp.jpa.replicas.password:}") String password,
+            @Value("${mafp.jpa.replicas.pool-size:0}") int poolSize,
+            @Value("${mafp.jpa.replicas.max-lag:5000}") long maxLag,
+            @Value("${mafp.jpa.replicas.check-interval:1000}") long checkInterval) {
+        return new ReplicaRoutingPostProcessor(tuning, urls, username, password, poolSize,
+                Duration.ofMillis(maxLag), Duration.ofMillis(checkInterval));
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer replicaRoutingCustomizer(@Value("${mafp.jpa.replicas.urls:}") String[] urls) {
+        return ReplicaRoutingPostProcessor.customizer(urls);
+    }
+
+    /**
+     * Counts SQL statements of requests and of mappings wrapped by {@link QueryBudget#perEntity}, requests running
+     * more than 'mafp.jpa.query-budget.request' ones are logged or fail if 'mafp.jpa.query-budget.fail' is set.
+     */
+    @Bean
+    public QueryBudget queryBudget(@Value("${mafp.jpa.query-budget.fail:false}") boolean fail) {
+        return new QueryBudget(fail);
+    }
+
+    @Bean
+    public QueryBudgetFilter queryBudgetFilter(@Value("${mafp.jpa.query-budget.request:0}") int limit) {
+        return new QueryBudgetFilter(limit);
+    }
+
+    @Bean
+    public BulkInserter bulkInserter(EntityManager entityManager, @Value("${mafp.jpa.batch-size:50}") int batchSize) {
+        return new BulkInserter(entityManager, batchSize);
+    }
+
+    @Bean
+    public CopyIngest copyIngest(DataSource dataSource, @Value("${mafp.jpa.copy.buffer-size:65536}") int bufferSize,
+                                 @Value("${spring.jpa.properties.hibernate.jdbc.time_zone:}") String timeZone) {
+        return new CopyIngest(dataSource, bufferSize, timeZone.isEmpty() ? ZoneId.systemDefault() : ZoneId.of(timeZone));
+    }
+
+    @Bean
+    public SecondLevelCache secondLevelCache(
+            @Value("${mafp.jpa.cache.enabled:false}") boolean enabled,
+            @Value("${mafp.jpa.cache.query:true}") boolean queryCache,
+            @Value("${mafp.jpa.cache.ttl:600}") long ttl,
+            @Value("${mafp.jpa.cache.max-size:10000}") long maxSize,
+            @Value("${mafp.jpa.cache.regions:}") String[] regions) {
+        return new SecondLevelCache(enabled, queryCache, Duration.ofSeconds(ttl), maxSize, regions);
+    }
+}
@@ -0,0 +1,163 @@
+package org.lastrix.jpa;
+
+import org.lastrix.rest.BadRequestException;
+import org.lastrix.rest.KeysetCursor;
+import org.lastrix.rest.KeysetPage;
+import org.lastrix.rest.KeysetPagination;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.ReflectionUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Query of an entity page by {@link KeysetPagination}: rows after the cursor are selected with
+ * {@code (e.k1, e.k2) > (:k1, :k2) order by e.k1, e.k2} and the page size limit, so an index on the keys finds
+ * the page without scanning skipped rows. One extra row is fetched to know if there is a next page, no count query
+ * is made.
+ * <p>
+ * The keys must be non null attributes of the entity and the last one unique, e.g. {@code createdAt, id}.
+ * Keys of mixed directions are compared one by one, which indexes serve worse than a row comparison.
+ * Conditions are HQL over the entity alias {@code e}.
+ */
+public final class KeysetQuery<E> {
+    private static final String ALIAS = "e";
+    private static final String KEY_PARAMETER = "keyset";
+
+    private final EntityManager entityManager;
+    private final Class<E> type;
+    private final EntityType<E> entity;
+    private final List<Key> keys = new ArrayList<>();
+    private final List<String> conditions = new ArrayList<>();
+    private final Map<String, Object> parameters = new LinkedHashMap<>();
+
+    private KeysetQuery(EntityManager entityManager, Class<E> type) {
+        this.entityManager = entityManager;
+        this.type = type;
+        this.entity = entityManager.getMetamodel().entity(type);
+    }
+
+    public static <E> KeysetQuery<E> of(EntityManager entityManager, Class<E> type) {
+        return new KeysetQuery<>(entityManager, type);
+    }
+
+    public KeysetQuery<E> where(String condition) {
+        conditions.add(condition);
+        return this;
+    }
+
+    public KeysetQuery<E> parameter(String name, Object value) {
+        parameters.put(name, value);
+        return this;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the entity has no such attribute
+     */
+    public KeysetQuery<E> orderBy(String attribute, Sort.Direction direction) {
+        keys.add(new Key(entity.getSingularAttribute(attribute), direction));
+        return this;
+    }
+
+    public KeysetQuery<E> orderBy(Sort sort) {
+        sort.forEach(order -> orderBy(order.getProperty(), order.getDirection()));
+        return this;
+    }
+
+    public KeysetPage<E> fetch(KeysetPagination pagination) {
+        if (keys.isEmpty()) throw new IllegalStateException("Keyset query of " + entity.getName() + " has no order");
+        var cursor = pagination.cursor();
+        if (cursor != null && cursor.size() != keys.size()) {
+            throw new BadRequestException("Cursor does not match the order of " + entity.getName());
+        }
+        var query = entityManager.createQuery(hql(cursor != null), type);
+        parameters.forEach(query::setParameter);
+        for (int i = 0; cursor != null && i < keys.size(); i++) {
+            query.setParameter(KEY_PARAMETER + i, cursor.get(i, keys.get(i).attribute.getJavaType()));
+        }
+        var rows = query.setMaxResults(pagination.getPageSize() + 1).getResultList();
+        if (rows.size() <= pagination.getPageSize()) return new KeysetPage<>(rows, null);
+        var content = rows.subList(0, pagination.getPageSize());
+        return new KeysetPage<>(new ArrayList<>(content), KeysetCursor.encode(keyValues(content.get(content.size() - 1))));
+    }
+
+    String hql(boolean afterCursor) {
+        var sb = new StringBuilder("select ").append(ALIAS).append(" from ").append(entity.getName()).append(' ').append(ALIAS);
+        var where = new ArrayList<String>(conditions.size() + 1);
+        for (var condition : conditions) where.add("(" + condition + ")");
+        if (afterCursor) where.add(keysetCondition());
+        if (!where.isEmpty()) {
+            sb.append(" where ");
+            for (int i = 0; i < where.size(); i++) sb.append(i == 0 ? "" : " and ").append(where.get(i));
+        }
+        sb.append(" order by ");
+        for (int i = 0; i < keys.size(); i++) {
+            var key = keys.get(i);
+            sb.append(i == 0 ? "" : ", ").append(key.path()).append(key.direction.isAscending() ? " asc" : " desc");
+        }
+        return sb.toString();
+    }
+
+    private String keysetCondition() {
+        var direction = keys.get(0).direction;
+        if (keys.size() == 1 || keys.stream().allMatch(k -> k.direction == direction)) {
+            var paths = new StringBuilder();
+            var values = new StringBuilder();
+            for (int i = 0; i < keys.size(); i++) {
+                paths.append(i == 0 ? "" : ", ").append(keys.get(i).path());
+                values.append(i == 0 ? "" : ", ").append(':').append(KEY_PARAMETER).append(i);
+            }
+            return keys.size() == 1
+                    ? paths + operator(direction) + values
+                    : "(" + paths + ")" + operator(direction) + "(" + values + ")";
+        }
+        // (k1 > :k1) or (k1 = :k1 and k2 < :k2) ...
+        var sb = new StringBuilder("(");
+        for (int i = 0; i < keys.size(); i++) {
+            sb.append(i == 0 ? "(" : " or (");
+            for (int j = 0; j < i; j++) sb.append(keys.get(j).path()).append(" = :").append(KEY_PARAMETER).append(j).append(" and ");
+            sb.append(keys.get(i).path()).append(operator(keys.get(i).direction)).append(':').append(KEY_PARAMETER).append(i).append(')');
+        }
+        return sb.append(')').toString();
+    }
+
+    private static String operator(Sort.Direction direction) {
+        return direction.isAscending() ? " > " : " < ";
+    }
+
+    private List<Object> keyValues(E row) {
+        var values = new ArrayList<>(keys.size());
+        for (var key : keys) values.add(key.value(row));
+        return values;
+    }
+
+    private static final class Key {
+        private final SingularAttribute<?, ?> attribute;
+        private final Sort.Direction direction;
+
+        private Key(SingularAttribute<?, ?> attribute, Sort.Direction direction) {
+            this.attribute = attribute;
+            this.direction = direction;
+            if (attribute.getJavaMember() instanceof Field) ReflectionUtils.makeAccessible((Field) attribute.getJavaMember());
+            else if (attribute.getJavaMember() instanceof Method) ReflectionUtils.makeAccessible((Method) attribute.getJavaMember());
+        }
+
+        private String path() {
+            return ALIAS + '.' + attribute.getName();
+        }
+
+        private Object value(Object row) {
+            var member = attribute.getJavaMember();
+            if (member instanceof Field) return ReflectionUtils.getField((Field) member, row);
+            if (member instanceof Method) return ReflectionUtils.invokeMethod((Method) member, row);
+            throw new IllegalStateException("Unable to read " + attribute.getName() + " of " + row.getClass().getName());
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package org.lastrix.jpa;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+
+/**
+ * Metrics of Hikari pools tagged by pool name: connections by state, histograms of time to acquire
+ * a connection and time it was held, acquisition timeouts.
+ * <p>
+ * Acquisitions slower than {@code slowAcquire} and connections held longer than {@code longUsage} are logged
+ * with the endpoint served by the thread, zero disables either.
+ * <p>
+ * Pools tracked by it are skipped by the pool metrics of Spring Boot, so the standard {@code hikaricp.*} meters
+ * are recorded too.
+ */
+@Slf4j
+public class PoolMetrics implements MetricsTrackerFactory, MeterBinder {
+    private final long slowAcquire;
+    private final long longUsage;
+    private final Map<String, Tracker> trackers = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+
+    public PoolMetrics(Duration slowAcquire, Duration longUsage) {
+        this.slowAcquire = slowAcquire.toNanos();
+        this.longUsage = longUsage.toMillis();
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        var tracker = new Tracker(poolName, poolStats);
+        trackers.put(poolName, tracker);
+        var r = registry;
+        if (r != null) tracker.bindTo(r);
+        return tracker;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        trackers.values().forEach(tracker -> tracker.bindTo(registry));
+    }
+
+    private static String endpoint() {
+        var attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes) {
+            var request = ((ServletRequestAttributes) attributes).getRequest();
+            return request.getMethod() + ' ' + request.getRequestURI();
+        }
+        return "thread " + Thread.currentThread().getName();
+    }
+
+    private final class Tracker implements IMetricsTracker {
+        private final String pool;
+        private final PoolStats stats;
+        private final LongAdder timeouts = new LongAdder();
+        private volatile IMetricsTracker standard;
+        private volatile Timer acquire;
+        private volatile Timer usage;
+
+        private Tracker(String pool, PoolStats stats) {
+            this.pool = pool;
+            this.stats = stats;
+        }
+
+        private synchronized void bindTo(MeterRegistry registry) {
+            if (acquire != null) return;
+            gauge(registry, "active", PoolStats::getActiveConnections);
+            gauge(registry, "idle", PoolStats::getIdleConnections);
+            gauge(registry, "pending", PoolStats::getPendingThreads);
+            Gauge.builder("mafp.jpa.pool.max", stats, PoolStats::getMaxConnections)
+                    .tag("pool", pool)
+                    .register(registry);
+            FunctionCounter.builder("mafp.jpa.pool.timeouts", timeouts, LongAdder::sum)
+                    .tag("pool", pool)
+                    .description("Threads failed to get a connection within the connection timeout")
+                    .register(registry);
+            usage = Timer.builder("mafp.jpa.pool.usage")
+                    .tag("pool", pool)
+                    .description("Time connections were held by borrowers")
+                    .publishPercentileHistogram()
+                    .register(registry);
+            acquire = Timer.builder("mafp.jpa.pool.acquire")
+                    .tag("pool", pool)
+                    .description("Time to get a connection from the pool")
+                    .publishPercentileHistogram()
+                    .register(registry);
+            standard = new MicrometerMetricsTrackerFactory(registry).create(pool, stats);
+        }
+
+        private void gauge(MeterRegistry registry, String state, ToIntFunction<PoolStats> value) {
+            Gauge.builder("mafp.jpa.pool.connections", stats, s -> value.applyAsInt(s))
+                    .tags("pool", pool, "state", state)
+                    .register(registry);
+        }
+
+        @Override
+        public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+            var tracker = standard;
+            if (tracker != null) tracker.recordConnectionCreatedMillis(connectionCreatedMillis);
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            var tracker = standard;
+            if (tracker != null) tracker.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+            var timer = acquire;
+            if (timer != null) timer.record(elapsedAcquiredNanos, TimeUnit.NANOSECONDS);
+            if (slowAcquire > 0L && elapsedAcquiredNanos > slowAcquire) {
+                log.warn("Waited {} ms for a connection of {} at {}",
+                        TimeUnit.NANOSECONDS.toMillis(elapsedAcquiredNanos), pool, endpoint());
+            }
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            var tracker = standard;
+            if (tracker != null) tracker.recordConnectionUsageMillis(elapsedBorrowedMillis);
+            var timer = usage;
+            if (timer != null) timer.record(elapsedBorrowedMillis, TimeUnit.MILLISECONDS);
+            if (longUsage > 0L && elapsedBorrowedMillis > longUsage) {
+                log.warn("Connection of {} was held for {} ms at {}", pool, elapsedBorrowedMillis, endpoint());
+            }
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            var tracker = standard;
+            if (tracker != null) tracker.recordConnectionTimeout();
+            timeouts.increment();
+            log.warn("Timed out waiting for a connection of {} at {}", pool, endpoint());
+        }
+
+        @Override
+        public void close() {
+            var tracker = standard;
+            if (tracker != null) tracker.close();
+            trackers.remove(pool, this);
+        }
+    }
+}
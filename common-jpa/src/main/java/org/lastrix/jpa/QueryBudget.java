@@ -0,0 +1,109 @@
+package org.lastrix.jpa;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.lastrix.rest.EntityMapper;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+
+import java.util.Map;
+
+/**
+ * Counts SQL statements Hibernate prepares on the current thread within {@link Scope scopes}, e.g. of an HTTP request
+ * by {@link QueryBudgetFilter} or of each mapped entity by {@link #perEntity(EntityMapper, int)}. A statement counts
+ * in every open scope of the thread. A scope running more statements than its limit, unless it is zero, is logged
+ * on close or fails with {@link QueryBudgetExceededException} at the first extra statement if {@code fail} is set.
+ * Statements of other threads are not counted, e.g. of concurrent mappers run by {@link org.lastrix.rest.ParallelMapping}.
+ */
+@Slf4j
+public class QueryBudget implements StatementInspector, HibernatePropertiesCustomizer {
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private final boolean fail;
+
+    public QueryBudget(boolean fail) {
+        this.fail = fail;
+    }
+
+    @Override
+    public void customize(Map<String, Object> properties) {
+        properties.putIfAbsent(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Scope exceeded = null;
+        for (var scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            if (++scope.count == scope.limit + 1 && scope.limit > 0 && exceeded == null) exceeded = scope;
+        }
+        if (exceeded != null && fail) {
+            exceeded.failed = true;
+            throw new QueryBudgetExceededException(exceeded.name, exceeded.limit, sql);
+        }
+        return sql;
+    }
+
+    /**
+     * Opens a scope on the current thread, it must be closed by the same thread.
+     *
+     * @param limit statements allowed, zero for no limit
+     */
+    public static Scope begin(String name, int limit) {
+        var scope = new Scope(name, limit, CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * @return mapper counting statements of each {@link EntityMapper#toDto(Object)} call in a scope of its own,
+     * lazy loads of associations are the usual reason to exceed the limit
+     */
+    public static <E, D> EntityMapper<E, D> perEntity(EntityMapper<E, D> mapper, int limit) {
+        var name = mapper.getClass().getSimpleName() + ".toDto";
+        return new EntityMapper<>() {
+            @Override
+            public E fromDto(D dto) {
+                return mapper.fromDto(dto);
+            }
+
+            @Override
+            public D toDto(E entity) {
+                try (var ignored = begin(name, limit)) {
+                    return mapper.toDto(entity);
+                }
+            }
+        };
+    }
+
+    public static final class Scope implements AutoCloseable {
+        private final String name;
+        private final int limit;
+        private final Scope parent;
+        private int count;
+        private boolean failed;
+
+        private Scope(String name, int limit, Scope parent) {
+            this.name = name;
+            this.limit = limit;
+            this.parent = parent;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public void close() {
+            if (CURRENT.get() != this) throw new IllegalStateException("Query budget scopes must be closed in order: " + name);
+            if (parent == null) CURRENT.remove();
+            else CURRENT.set(parent);
+            if (limit > 0 && count > limit && !failed) {
+                log.warn("{} ran {} SQL statements, the budget is {}", name, count, limit);
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package org.lastrix.jpa;
+
+/**
+ * Thrown by {@link QueryBudget} when a scope prepares more statements than allowed.
+ */
+public class QueryBudgetExceededException extends IllegalStateException {
+    public QueryBudgetExceededException(String scope, int limit, String sql) {
+        super(scope + " exceeded the budget of " + limit + " SQL statements with: " + sql);
+    }
+}
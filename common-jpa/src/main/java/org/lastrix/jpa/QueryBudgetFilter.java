@@ -0,0 +1,32 @@
+package org.lastrix.jpa;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Serves each request within a {@link QueryBudget} scope, passes requests through if the limit is zero.
+ */
+public class QueryBudgetFilter extends OncePerRequestFilter {
+    private final int limit;
+
+    public QueryBudgetFilter(int limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (limit <= 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        try (var ignored = QueryBudget.begin(request.getMethod() + ' ' + request.getRequestURI(), limit)) {
+            filterChain.doFilter(request, response);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package org.lastrix.jpa;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gives connections of replicas to read only transactions and of the primary to everything else.
+ * Replicas are checked periodically and used while reachable and lagging behind the primary by no more than
+ * {@code maxLag}, the primary serves reads if there are none. The replica is picked when the transaction runs
+ * its first statement, so it must be used through {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * and sessions must release connections after each transaction, see {@link ReplicaRoutingPostProcessor#customizer}.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements MeterBinder, Closeable {
+    private static final String LAG_QUERY = "select case when not pg_is_in_recovery() then 0"
+            + " when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0"
+            + " else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000, 0) end";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLag;
+    private final ScheduledExecutorService checker;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicas, Duration maxLag,
+                                    Duration checkInterval) {
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas.size());
+        for (var replica : replicas) this.replicas.add(new Replica(replica));
+        this.maxLag = maxLag.toMillis();
+        this.checker = Executors.newSingleThreadScheduledExecutor(r -> {
+            var thread = new Thread(r, "replica-lag-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checker.scheduleWithFixedDelay(this::checkReplicas, 0L, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            for (int i = 0; i < replicas.size(); i++) {
+                var replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+                if (!replica.available) continue;
+                try {
+                    var connection = replica.dataSource.getConnection();
+                    replica.connections.increment();
+                    return connection;
+                } catch (SQLException e) {
+                    replica.available = false;
+                    log.warn("Replica {} is not available: {}", replica.getName(), e.getMessage());
+                }
+            }
+            fallbacks.increment();
+        }
+        var connection = primary.getConnection();
+        primaryConnections.increment();
+        return connection;
+    }
+
+    /**
+     * Connections with other credentials are always of the primary, replica pools have credentials of their own.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        var connection = primary.getConnection(username, password);
+        primaryConnections.increment();
+        return connection;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("mafp.jpa.routing.connections", primaryConnections, LongAdder::sum)
+                .tags("route", "primary")
+                .register(registry);
+        FunctionCounter.builder("mafp.jpa.routing.fallbacks", fallbacks, LongAdder::sum)
+                .description("Read only transactions served by the primary as no replica was available")
+                .register(registry);
+        for (var replica : replicas) {
+            FunctionCounter.builder("mafp.jpa.routing.connections", replica.connections, LongAdder::sum)
+                    .tags("route", replica.getName())
+                    .register(registry);
+            Gauge.builder("mafp.jpa.replica.lag", replica, r -> r.available ? r.lag : Double.NaN)
+                    .tag("route", replica.getName())
+                    .baseUnit("milliseconds")
+                    .register(registry);
+        }
+    }
+
+    @Override
+    public void close() {
+        checker.shutdownNow();
+        for (var replica : replicas) replica.dataSource.close();
+    }
+
+    private void checkReplicas() {
+        for (var replica : replicas) {
+            try (var connection = replica.dataSource.getConnection();
+                 var statement = connection.createStatement()) {
+                statement.setQueryTimeout(5);
+                try (var rs = statement.executeQuery(LAG_QUERY)) {
+                    replica.lag = rs.next() ? rs.getLong(1) : Long.MAX_VALUE;
+                }
+                var available = replica.lag <= maxLag;
+                if (available != replica.available) {
+                    log.info("Replica {} is {}, lag {} ms", replica.getName(), available ? "available" : "behind", replica.lag);
+                }
+                replica.available = available;
+            } catch (SQLException | RuntimeException e) {
+                if (replica.available) log.warn("Replica {} is not available: {}", replica.getName(), e.getMessage());
+                replica.available = false;
+            }
+        }
+    }
+
+    private static final class Replica {
+        private final HikariDataSource dataSource;
+        private final LongAdder connections = new LongAdder();
+        private volatile boolean available;
+        private volatile long lag;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private String getName() {
+            return dataSource.getPoolName();
+        }
+    }
+}
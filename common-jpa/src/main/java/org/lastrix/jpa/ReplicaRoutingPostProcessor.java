@@ -0,0 +1,114 @@
+package org.lastrix.jpa;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Replaces the 'dataSource' bean with {@link ReplicaRoutingDataSource} if replica urls are set.
+ * Replica pools take credentials of the primary one unless given and are tuned as the primary one,
+ * their size is that of the primary one unless {@code poolSize} is positive.
+ */
+@Slf4j
+public class ReplicaRoutingPostProcessor implements BeanPostProcessor, MeterBinder, DisposableBean {
+    private static final String DATA_SOURCE = "dataSource";
+
+    private final DataSourceTuningPostProcessor tuning;
+    private final String[] urls;
+    private final String username;
+    private final String password;
+    private final int poolSize;
+    private final Duration maxLag;
+    private final Duration checkInterval;
+    private volatile ReplicaRoutingDataSource routing;
+    private volatile MeterRegistry registry;
+
+    public ReplicaRoutingPostProcessor(DataSourceTuningPostProcessor tuning, String[] urls, String username, String password, int poolSize,
+                                       Duration maxLag, Duration checkInterval) {
+        this.tuning = tuning;
+        this.urls = urls;
+        this.username = username;
+        this.password = password;
+        this.poolSize = poolSize;
+        this.maxLag = maxLag;
+        this.checkInterval = checkInterval;
+    }
+
+    /**
+     * Makes Hibernate release connections after each transaction when there are replicas. Spring holds the connection
+     * for the whole session by default, so a session spanning transactions, e.g. of open-in-view, would run writes
+     * on the replica connection taken by an earlier read only transaction. Isolation levels other than the default
+     * one are not supported then.
+     */
+    public static HibernatePropertiesCustomizer customizer(String[] urls) {
+        return properties -> {
+            if (Arrays.stream(urls).allMatch(String::isBlank)) return;
+            var mode = PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION;
+            var previous = properties.put(AvailableSettings.CONNECTION_HANDLING, mode);
+            if (previous != null && !mode.name().equals(previous.toString())) {
+                log.warn("Connection handling {} replaced by {}, required by replica routing", previous, mode);
+            }
+        };
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!DATA_SOURCE.equals(beanName) || !(bean instanceof DataSource)) return bean;
+        var replicas = new ArrayList<HikariDataSource>();
+        for (var url : urls) {
+            if (!url.isBlank()) replicas.add(replica(url.trim(), replicas.size(), bean));
+        }
+        if (replicas.isEmpty()) return bean;
+        var created = new ReplicaRoutingDataSource((DataSource) bean, replicas, maxLag, checkInterval);
+        routing = created;
+        // the registry may be bound before the data source is created
+        var r = registry;
+        if (r != null) created.bindTo(r);
+        return new LazyConnectionDataSourceProxy(created);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        var r = routing;
+        if (r != null) r.bindTo(registry);
+    }
+
+    @Override
+    public void destroy() {
+        var r = routing;
+        if (r != null) r.close();
+    }
+
+    HikariDataSource replica(String url, int index, Object primary) {
+        var replica = new HikariDataSource();
+        replica.setPoolName("replica-" + index);
+        replica.setJdbcUrl(url);
+        if (poolSize > 0) replica.setMaximumPoolSize(poolSize);
+        replica.setReadOnly(true);
+        replica.setConnectionTimeout(2000L);
+        // a replica being down must not stop the service
+        replica.setInitializationFailTimeout(-1L);
+        if (!username.isEmpty()) {
+            replica.setUsername(username);
+            replica.setPassword(password);
+        } else if (primary instanceof HikariDataSource) {
+            replica.setUsername(((HikariDataSource) primary).getUsername());
+            replica.setPassword(((HikariDataSource) primary).getPassword());
+        }
+        tuning.tune(replica);
+        return replica;
+    }
+}
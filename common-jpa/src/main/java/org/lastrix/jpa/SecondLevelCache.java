@@ -0,0 +1,162 @@
+package org.lastrix.jpa;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.util.ClassUtils;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.persistence.SharedCacheMode;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hibernate second level and query cache in local Caffeine caches, one per region. Every region is bounded:
+ * by {@link CacheRegion} of the entity, by 'mafp.jpa.cache.regions' or by the defaults; the update timestamps
+ * region is never evicted as query results would be stale otherwise. Entries are kept by reference.
+ * <p>
+ * Only entities marked as cacheable are cached, queries are cached with the {@code org.hibernate.cacheable} hint.
+ * Requests, hits, puts and evictions of regions are reported by {@link JCacheMetrics}, sizes by 'mafp.jpa.cache.size'.
+ */
+public class SecondLevelCache implements HibernatePropertiesCustomizer, MeterBinder, DisposableBean {
+    private static final String TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    private final boolean enabled;
+    private final boolean queryCache;
+    private final Limits defaults;
+    private final Map<String, Limits> regions;
+    private volatile CacheManager cacheManager;
+    private volatile MeterRegistry registry;
+
+    /**
+     * @param regions {@code region:ttl seconds:max size} entries, e.g. {@code org.example.Country:3600:300}
+     */
+    public SecondLevelCache(boolean enabled, boolean queryCache, Duration ttl, long maxSize, String[] regions) {
+        this.enabled = enabled;
+        this.queryCache = queryCache;
+        this.defaults = new Limits(ttl.getSeconds(), maxSize);
+        this.regions = parse(regions);
+    }
+
+    @Override
+    public void customize(Map<String, Object> properties) {
+        if (!enabled) return;
+        properties.putIfAbsent(AvailableSettings.USE_SECOND_LEVEL_CACHE, "true");
+        properties.putIfAbsent(AvailableSettings.USE_QUERY_CACHE, Boolean.toString(queryCache));
+        properties.putIfAbsent(AvailableSettings.JPA_SHARED_CACHE_MODE, SharedCacheMode.ENABLE_SELECTIVE.name());
+        properties.putIfAbsent(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+        properties.putIfAbsent(ConfigSettings.CACHE_MANAGER, getCacheManager());
+        properties.putIfAbsent(ConfigSettings.MISSING_CACHE_STRATEGY, MissingCacheStrategy.CREATE.getExternalRepresentation());
+    }
+
+    /**
+     * @return manager of region caches, null if the cache is disabled
+     */
+    public synchronized CacheManager getCacheManager() {
+        if (!enabled) return null;
+        if (cacheManager == null) {
+            var provider = new CaffeineCachingProvider();
+            cacheManager = new BoundedCacheManager(
+                    provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader()), this);
+        }
+        return cacheManager;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        var manager = cacheManager;
+        if (manager == null) return;
+        for (var name : manager.getCacheNames()) bind(registry, manager.getCache(name));
+    }
+
+    @Override
+    public void destroy() {
+        var manager = cacheManager;
+        if (manager != null) manager.close();
+    }
+
+    CaffeineConfiguration<Object, Object> configuration(String region) {
+        var configuration = new CaffeineConfiguration<>();
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        if (TIMESTAMPS_REGION.equals(region)) return configuration;
+        var limits = limits(region);
+        if (limits.ttl > 0L) configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(limits.ttl)));
+        if (limits.maxSize > 0L) configuration.setMaximumSize(OptionalLong.of(limits.maxSize));
+        return configuration;
+    }
+
+    void created(Cache<?, ?> cache) {
+        var r = registry;
+        if (r != null) bind(r, cache);
+    }
+
+    private static void bind(MeterRegistry registry, Cache<?, ?> cache) {
+        JCacheMetrics.monitor(registry, cache);
+        var caffeine = cache.unwrap(com.github.benmanes.caffeine.cache.Cache.class);
+        Gauge.builder("mafp.jpa.cache.size", caffeine, com.github.benmanes.caffeine.cache.Cache::estimatedSize)
+                .tag("cache", cache.getName())
+                .register(registry);
+    }
+
+    private Limits limits(String region) {
+        var limits = regions.get(region);
+        if (limits != null) return limits.or(defaults);
+        // collection regions are named after the owner entity
+        var annotation = annotation(region);
+        if (annotation == null && region.lastIndexOf('.') > 0) annotation = annotation(region.substring(0, region.lastIndexOf('.')));
+        return annotation == null ? defaults : new Limits(annotation.ttl(), annotation.maxSize()).or(defaults);
+    }
+
+    private static CacheRegion annotation(String className) {
+        try {
+            return ClassUtils.forName(className, SecondLevelCache.class.getClassLoader()).getAnnotation(CacheRegion.class);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static Map<String, Limits> parse(String[] regions) {
+        var map = new HashMap<String, Limits>();
+        for (var region : regions) {
+            if (region.isBlank()) continue;
+            var parts = region.trim().split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Cache region must be 'region:ttl:max size': " + region);
+            }
+            try {
+                map.put(parts[0], new Limits(Long.parseLong(parts[1]), Long.parseLong(parts[2])));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Cache region must be 'region:ttl:max size': " + region, e);
+            }
+        }
+        return map;
+    }
+
+    private static final class Limits {
+        private final long ttl;
+        private final long maxSize;
+
+        private Limits(long ttl, long maxSize) {
+            this.ttl = ttl;
+            this.maxSize = maxSize;
+        }
+
+        private Limits or(Limits defaults) {
+            return new Limits(ttl > 0L ? ttl : defaults.ttl, maxSize > 0L ? maxSize : defaults.maxSize);
+        }
+    }
+}
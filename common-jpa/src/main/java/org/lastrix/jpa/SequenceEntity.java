@@ -0,0 +1,33 @@
+package org.lastrix.jpa;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.MappedSuperclass;
+
+/**
+ * Entity with an id from the sequence {@code <entity name>_seq}, allocated by {@link #ALLOCATION_SIZE} per round trip,
+ * so inserts need no query for ids and can be batched. The sequence must be incremented by the same size,
+ * e.g. {@code create sequence orderitem_seq increment by 50} for {@code OrderItem}.
+ */
+@Getter
+@Setter
+@MappedSuperclass
+public abstract class SequenceEntity {
+    public static final int ALLOCATION_SIZE = 50;
+
+    @Id
+    @GeneratedValue(generator = "pooled-sequence")
+    @GenericGenerator(name = "pooled-sequence", strategy = "enhanced-sequence", parameters = {
+            @Parameter(name = SequenceStyleGenerator.CONFIG_PREFER_SEQUENCE_PER_ENTITY, value = "true"),
+            @Parameter(name = SequenceStyleGenerator.CONFIG_SEQUENCE_PER_ENTITY_SUFFIX, value = "_seq"),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "" + ALLOCATION_SIZE),
+            @Parameter(name = SequenceStyleGenerator.OPT_PARAM, value = "pooled-lo")
+    })
+    private Long id;
+}
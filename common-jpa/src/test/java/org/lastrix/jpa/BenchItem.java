@@ -0,0 +1,18 @@
+package org.lastrix.jpa;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.Entity;
+import javax.persistence.Table;
+import java.time.Instant;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "bench_item")
+public class BenchItem extends SequenceEntity {
+    private String name;
+    private long amount;
+    private Instant createdAt;
+}
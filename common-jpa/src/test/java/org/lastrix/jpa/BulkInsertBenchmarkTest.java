@@ -0,0 +1,109 @@
+package org.lastrix.jpa;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.lastrix.rest.EntityMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Rows per second of {@link BulkInserter} without batching and with the settings of {@link JpaAutoConfiguration},
+ * and of {@link CopyIngest}.
+ */
+@Slf4j
+public class BulkInsertBenchmarkTest {
+    private static final int ROWS = 20_000;
+
+    private static TestPostgres postgres;
+
+    @BeforeAll
+    public static void startDatabase() {
+        postgres = TestPostgres.start();
+    }
+
+    @AfterAll
+    public static void stopDatabase() {
+        if (postgres != null) postgres.stop();
+    }
+
+    @Test
+    public void testRowsPerSecond() {
+        var plain = run(1, false, false);
+        var batched = run(50, true, false);
+        var copied = run(50, true, true);
+        log.info("Bulk insert of {} rows: {} rows/s without batching, {} rows/s batched, {} rows/s copied",
+                ROWS, plain, batched, copied);
+    }
+
+    private long run(int batchSize, boolean rewriteBatchedInserts, boolean copy) {
+        try (var context = postgres.context(
+                "mafp.jpa.batch-size=" + batchSize,
+                "mafp.jpa.rewrite-batched-inserts=" + rewriteBatchedInserts)) {
+            var inserter = context.getBean(BulkInserter.class);
+            var items = IntStream.range(0, ROWS).mapToObj(i -> "item-" + i).collect(Collectors.toList());
+            // warmup
+            inserter.insert(items.subList(0, 1000), new BenchItemMapper());
+            var start = System.nanoTime();
+            if (copy) {
+                var ids = new AtomicLong(1_000_000L);
+                var table = CopyTable.<BenchItem>of("bench_item")
+                        .column("id", i -> ids.incrementAndGet())
+                        .column("name", BenchItem::getName)
+                        .column("amount", BenchItem::getAmount)
+                        .column("created_at", BenchItem::getCreatedAt);
+                var mapper = new BenchItemMapper();
+                assertEquals(ROWS, context.getBean(CopyIngest.class).copy(table, items, mapper));
+                // copied timestamps read back as the instants JPA would have stored
+                assertEquals(Timestamp.from(mapper.now.truncatedTo(ChronoUnit.MICROS)), context.getBean(JdbcTemplate.class)
+                        .queryForObject("select created_at from bench_item where id = 1000001", Timestamp.class));
+            } else {
+                inserter.insert(items, new BenchItemMapper());
+            }
+            var elapsed = System.nanoTime() - start;
+            var jdbc = context.getBean(JdbcTemplate.class);
+            assertEquals(ROWS + 1000L, jdbc.queryForObject("select count(*) from bench_item", Long.class));
+            if (copy) testMerge(context.getBean(CopyIngest.class), jdbc);
+            return ROWS * 1_000_000_000L / elapsed;
+        }
+    }
+
+    private static void testMerge(CopyIngest ingest, JdbcTemplate jdbc) {
+        var table = CopyTable.<Object[]>of("bench_item")
+                .column("id", r -> r[0])
+                .column("name", r -> r[1])
+                .column("amount", r -> r[2]);
+        var rows = List.of(new Object[]{1_000_001L, "merged", 1L}, new Object[]{2_000_000L, "new", 2L});
+        assertEquals(2L, ingest.merge(table, rows.iterator(), CopyIngest.OnConflict.UPDATE, "id"));
+        assertEquals("merged", jdbc.queryForObject("select name from bench_item where id = 1000001", String.class));
+        assertEquals(ROWS + 1001L, jdbc.queryForObject("select count(*) from bench_item", Long.class));
+    }
+
+    private static final class BenchItemMapper implements EntityMapper<BenchItem, String> {
+        private final Instant now = Instant.now();
+
+        @Override
+        public BenchItem fromDto(String dto) {
+            var item = new BenchItem();
+            item.setName(dto);
+            item.setAmount(dto.length());
+            item.setCreatedAt(now);
+            return item;
+        }
+
+        @Override
+        public String toDto(BenchItem entity) {
+            return entity.getName();
+        }
+    }
+}
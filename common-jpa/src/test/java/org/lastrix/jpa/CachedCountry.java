@@ -0,0 +1,18 @@
+package org.lastrix.jpa;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.Cacheable;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+@Getter
+@Setter
+@Entity
+@Cacheable
+@CacheRegion(ttl = 60L, maxSize = 100L)
+@Table(name = "cached_country")
+public class CachedCountry extends SequenceEntity {
+    private String name;
+}
@@ -0,0 +1,57 @@
+package org.lastrix.jpa;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CopyIngestTest {
+
+    @Test
+    public void testCsvRow() {
+        var encoder = new CsvRowEncoder<Object[]>(List.of(r -> r[0], r -> r[1], r -> r[2], r -> r[3], r -> r[4]), ZoneOffset.UTC);
+        var sb = new StringBuilder();
+        encoder.encode(new Object[]{42L, "say \"hi\",\nbye", null, "", new byte[]{0x0f, (byte) 0xa0}}, sb);
+        encoder.encode(new Object[]{true, Instant.EPOCH, Thread.State.NEW, 1.5d, null}, sb);
+        assertEquals("42,\"say \"\"hi\"\",\nbye\",,\"\",\\x0fa0\n"
+                + "true,\"1970-01-01T00:00:00Z\",\"NEW\",1.5,\n", sb.toString());
+    }
+
+    @Test
+    public void testTimeZone() {
+        var encoder = new CsvRowEncoder<Object[]>(List.of(r -> r[0], r -> r[1], r -> r[2]), ZoneId.of("Europe/Moscow"));
+        var sb = new StringBuilder();
+        var instant = Instant.parse("2020-07-01T12:00:00.123456Z");
+        encoder.encode(new Object[]{instant, instant.atOffset(ZoneOffset.ofHours(-5)), Timestamp.from(instant)}, sb);
+        // the local time of the zone, as Hibernate writes it into timestamp columns, and its offset for timestamptz
+        assertEquals("\"2020-07-01T15:00:00.123456+03:00\",\"2020-07-01T15:00:00.123456+03:00\","
+                + "\"2020-07-01T15:00:00.123456+03:00\"\n", sb.toString());
+    }
+
+    @Test
+    public void testMergeSql() {
+        var table = CopyTable.<String[]>of("app.item")
+                .column("code", r -> r[0])
+                .column("name", r -> r[1])
+                .column("amount", r -> r[2]);
+        assertEquals("insert into app.item (code, name, amount) select code, name, amount from staging"
+                        + " on conflict (code) do update set name = excluded.name, amount = excluded.amount",
+                CopyIngest.mergeSql(table, "staging", CopyIngest.OnConflict.UPDATE, List.of("code")));
+        assertEquals("insert into app.item (code, name, amount) select code, name, amount from staging"
+                        + " on conflict (code) do nothing",
+                CopyIngest.mergeSql(table, "staging", CopyIngest.OnConflict.IGNORE, List.of("code")));
+    }
+
+    @Test
+    public void testIdentifiers() {
+        assertThrows(IllegalArgumentException.class, () -> CopyTable.of("item; drop table item"));
+        assertThrows(IllegalArgumentException.class, () -> CopyTable.of("item").column("a.b", Function.identity()));
+    }
+}
@@ -0,0 +1,80 @@
+package org.lastrix.jpa;
+
+import org.junit.jupiter.api.Test;
+import org.lastrix.rest.Pagination;
+import org.lastrix.rest.Rest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CountStrategyTest {
+
+    @Test
+    public void testPage() {
+        var exactCalls = new AtomicInteger();
+        var query = CountQuery.of("items", () -> {
+            exactCalls.incrementAndGet();
+            return 1000L;
+        });
+        CountStrategy estimated = q -> 900L;
+        var slice = new SliceImpl<>(List.of("a", "b"), PageRequest.of(0, 2), true);
+
+        assertSame(slice, estimated.page(slice, pagination(Pagination.Totals.NONE), query));
+        assertEquals(0, exactCalls.get());
+
+        var approximate = (Page<String>) estimated.page(slice, pagination(Pagination.Totals.APPROXIMATE), query);
+        assertEquals(900L, approximate.getTotalElements());
+        assertEquals(0, exactCalls.get());
+
+        var exact = (Page<String>) estimated.page(slice, pagination(Pagination.Totals.EXACT), query);
+        assertEquals(1000L, exact.getTotalElements());
+        assertEquals(1, exactCalls.get());
+
+        // the last page tells the total by itself
+        var last = new SliceImpl<>(List.of("c"), PageRequest.of(1, 2), false);
+        CountStrategy failing = q -> fail("no count expected");
+        assertEquals(3L, ((Page<String>) failing.page(last, pagination(Pagination.Totals.APPROXIMATE), query)).getTotalElements());
+    }
+
+    @Test
+    public void testRestWithoutTotals() {
+        var page = new PageImpl<>(List.of("a", "b"), PageRequest.of(0, 2), 1000L);
+        var rest = Rest.of(page, pagination(Pagination.Totals.NONE));
+        assertEquals(List.of("a", "b"), rest.getData());
+        assertNull(rest.getPagination().getTotalCount());
+        assertNull(rest.getPagination().getPageCount());
+
+        rest = Rest.of(page, pagination(Pagination.Totals.APPROXIMATE));
+        assertEquals(1000L, rest.getPagination().getTotalCount());
+        assertEquals(500, rest.getPagination().getPageCount());
+    }
+
+    @Test
+    public void testCached() {
+        var calls = new AtomicInteger();
+        var cached = CountStrategy.cached(q -> calls.incrementAndGet() * 10L, Duration.ofMinutes(1L), 10L);
+        assertEquals(10L, cached.count(CountQuery.of("a", () -> 0L)));
+        assertEquals(10L, cached.count(CountQuery.of("a", () -> 0L)));
+        assertEquals(20L, cached.count(CountQuery.of("b", () -> 0L)));
+        assertEquals(2, calls.get());
+
+        var expiring = CountStrategy.cached(q -> calls.incrementAndGet() * 10L, Duration.ZERO, 10L);
+        expiring.count(CountQuery.of("a", () -> 0L));
+        expiring.count(CountQuery.of("a", () -> 0L));
+        assertEquals(4, calls.get());
+    }
+
+    private static Pagination pagination(Pagination.Totals totals) {
+        var pagination = new Pagination();
+        pagination.setPageSize(2);
+        pagination.setTotals(totals);
+        return pagination;
+    }
+}
@@ -0,0 +1,79 @@
+package org.lastrix.jpa;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DataSourceTuningPostProcessorTest {
+    private static final String URL = "jdbc:postgresql://localhost/db";
+
+    @Test
+    public void testTune() {
+        var metrics = new PoolMetrics(Duration.ZERO, Duration.ZERO);
+        var tuning = new DataSourceTuningPostProcessor(true, 0, 512, 17, 30_000L, metrics);
+        try (var dataSource = dataSource(URL)) {
+            tuning.postProcessBeforeInitialization(dataSource, "dataSource");
+            assertEquals(17, dataSource.getMaximumPoolSize());
+            assertEquals(30_000L, dataSource.getLeakDetectionThreshold());
+            assertSame(metrics, dataSource.getMetricsTrackerFactory());
+            assertEquals("true", dataSource.getDataSourceProperties().getProperty("reWriteBatchedInserts"));
+            assertEquals("0", dataSource.getDataSourceProperties().getProperty("prepareThreshold"));
+            assertEquals("512", dataSource.getDataSourceProperties().getProperty("preparedStatementCacheQueries"));
+        }
+    }
+
+    @Test
+    public void testSettingsOfDataSourceWin() {
+        var tuning = new DataSourceTuningPostProcessor(true, 0, -1, 17, 30_000L, null);
+        try (var dataSource = dataSource(URL + "?reWriteBatchedInserts=false")) {
+            // the Hikari default size set explicitly is kept
+            dataSource.setMaximumPoolSize(10);
+            dataSource.setLeakDetectionThreshold(5_000L);
+            dataSource.addDataSourceProperty("prepareThreshold", "5");
+            tuning.tune(dataSource);
+            assertEquals(10, dataSource.getMaximumPoolSize());
+            assertEquals(5_000L, dataSource.getLeakDetectionThreshold());
+            assertNull(dataSource.getMetricsTrackerFactory());
+            assertNull(dataSource.getDataSourceProperties().getProperty("reWriteBatchedInserts"));
+            assertEquals("5", dataSource.getDataSourceProperties().getProperty("prepareThreshold"));
+            assertNull(dataSource.getDataSourceProperties().getProperty("preparedStatementCacheQueries"));
+        }
+    }
+
+    @Test
+    public void testNoSizing() {
+        var tuning = new DataSourceTuningPostProcessor(false, -1, -1, 0, 0L, null);
+        try (var dataSource = dataSource("jdbc:h2:mem:test")) {
+            tuning.tune(dataSource);
+            assertEquals(-1, dataSource.getMaximumPoolSize());
+            assertTrue(dataSource.getDataSourceProperties().isEmpty());
+        }
+    }
+
+    @Test
+    public void testReplicaSize() {
+        var tuning = new DataSourceTuningPostProcessor(false, -1, -1, 17, 0L, null);
+        var primary = dataSource(URL);
+        try (var sized = postProcessor(tuning, 4).replica(URL, 0, primary);
+             var inherited = postProcessor(tuning, 0).replica(URL, 1, primary)) {
+            assertEquals(4, sized.getMaximumPoolSize());
+            assertEquals(17, inherited.getMaximumPoolSize());
+            assertTrue(inherited.isReadOnly());
+            assertEquals("replica-1", inherited.getPoolName());
+        }
+    }
+
+    private static ReplicaRoutingPostProcessor postProcessor(DataSourceTuningPostProcessor tuning, int poolSize) {
+        return new ReplicaRoutingPostProcessor(tuning, new String[]{URL}, "", "", poolSize,
+                Duration.ofSeconds(1L), Duration.ofSeconds(1L));
+    }
+
+    private static HikariDataSource dataSource(String url) {
+        var dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        return dataSource;
+    }
+}
@@ -0,0 +1,62 @@
+package org.lastrix.jpa;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Estimates of {@link EstimatedCountStrategy} from plans and table statistics of Postgres.
+ */
+public class EstimatedCountStrategyTest {
+    private static final int ROWS = 5000;
+
+    private static TestPostgres postgres;
+
+    @BeforeAll
+    public static void startDatabase() {
+        postgres = TestPostgres.start();
+    }
+
+    @AfterAll
+    public static void stopDatabase() {
+        if (postgres != null) postgres.stop();
+    }
+
+    @Test
+    public void testEstimate() throws Exception {
+        try (var context = postgres.context()) {
+            var items = new ArrayList<BenchItem>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                var item = new BenchItem();
+                item.setName("item-" + i);
+                item.setAmount(i % 10);
+                item.setCreatedAt(Instant.EPOCH);
+                items.add(item);
+            }
+            context.getBean(BulkInserter.class).insert(items);
+            postgres.execute("analyze bench_item");
+
+            var entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+            try {
+                var strategy = CountStrategy.estimated(entityManager, 100L);
+                var exact = CountQuery.of("items", () -> -1L);
+                var plan = strategy.count(exact.withSql("select id from bench_item where amount = ?1", 3L));
+                assertTrue(plan > ROWS / 20 && plan < ROWS / 5, "plan estimate " + plan);
+                var table = strategy.count(exact.withTable("bench_item"));
+                assertTrue(table > ROWS / 2 && table <= ROWS * 2, "table estimate " + table);
+                // below the threshold the exact count is used
+                assertEquals(-1L, CountStrategy.estimated(entityManager, ROWS * 10L)
+                        .count(exact.withTable("bench_item")));
+            } finally {
+                entityManager.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.lastrix.jpa;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.lastrix.rest.KeysetPagination;
+import org.springframework.data.domain.Sort;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Walks all pages of {@link KeysetQuery} in row value and mixed direction orders.
+ */
+public class KeysetPagingTest {
+    private static TestPostgres postgres;
+
+    @BeforeAll
+    public static void startDatabase() {
+        postgres = TestPostgres.start();
+    }
+
+    @AfterAll
+    public static void stopDatabase() {
+        if (postgres != null) postgres.stop();
+    }
+
+    @Test
+    public void testPaging() {
+        try (var context = postgres.context()) {
+            var items = new ArrayList<BenchItem>();
+            var start = Instant.parse("2020-01-01T00:00:00Z");
+            for (int i = 0; i < 25; i++) {
+                var item = new BenchItem();
+                item.setName("item-" + i);
+                item.setAmount(i);
+                // equal timestamps, so the id decides the order within them
+                item.setCreatedAt(start.plusSeconds(i / 3));
+                items.add(item);
+            }
+            context.getBean(BulkInserter.class).insert(items);
+            var factory = context.getBean(EntityManagerFactory.class);
+
+            var byTime = Comparator.comparing(BenchItem::getCreatedAt).thenComparing(BenchItem::getId);
+            assertEquals(ids(items, i -> true, byTime), pages(factory, Sort.by("createdAt", "id"), 0L));
+            assertEquals(ids(items, i -> true, Comparator.comparing(BenchItem::getCreatedAt).reversed()
+                            .thenComparing(BenchItem::getId)),
+                    pages(factory, Sort.by(Sort.Order.desc("createdAt"), Sort.Order.asc("id")), 0L));
+            assertEquals(ids(items, i -> i.getAmount() >= 10, byTime.reversed()),
+                    pages(factory, Sort.by(Sort.Direction.DESC, "createdAt", "id"), 10L));
+        }
+    }
+
+    private static List<Long> pages(EntityManagerFactory factory, Sort sort, long min) {
+        var entityManager = factory.createEntityManager();
+        try {
+            var ids = new ArrayList<Long>();
+            var pagination = new KeysetPagination(null, 10, null);
+            while (true) {
+                var page = KeysetQuery.of(entityManager, BenchItem.class)
+                        .where("e.amount >= :min")
+                        .parameter("min", min)
+                        .orderBy(sort)
+                        .fetch(pagination);
+                page.getContent().forEach(i -> ids.add(i.getId()));
+                if (!page.hasNext()) return ids;
+                pagination.setNext(page.getNext());
+                pagination = pagination.nextPagination();
+            }
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private static List<Long> ids(List<BenchItem> items, Predicate<BenchItem> filter,
+                                  Comparator<BenchItem> order) {
+        return items.stream().filter(filter).sorted(order).map(BenchItem::getId).collect(Collectors.toList());
+    }
+}
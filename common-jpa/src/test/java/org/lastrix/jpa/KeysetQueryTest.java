@@ -0,0 +1,69 @@
+package org.lastrix.jpa;
+
+import org.junit.jupiter.api.Test;
+import org.lastrix.rest.KeysetPagination;
+import org.springframework.data.domain.Sort;
+
+import javax.persistence.EntityManager;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.Metamodel;
+import javax.persistence.metamodel.SingularAttribute;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+public class KeysetQueryTest {
+
+    @Test
+    public void testRowValue() {
+        var query = query().orderBy(Sort.by("createdAt", "id"));
+        assertEquals("select e from BenchItem e order by e.createdAt asc, e.id asc", query.hql(false));
+        assertEquals("select e from BenchItem e where (e.createdAt, e.id) > (:keyset0, :keyset1)"
+                + " order by e.createdAt asc, e.id asc", query.hql(true));
+
+        var descending = query().where("e.amount > :min").orderBy(Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+        assertEquals("select e from BenchItem e where (e.amount > :min) and (e.createdAt, e.id) < (:keyset0, :keyset1)"
+                + " order by e.createdAt desc, e.id desc", descending.hql(true));
+
+        var single = query().orderBy("id", Sort.Direction.ASC);
+        assertEquals("select e from BenchItem e where e.id > :keyset0 order by e.id asc", single.hql(true));
+    }
+
+    @Test
+    public void testMixedDirections() {
+        var query = query().where("e.amount > :min").orderBy(Sort.by(Sort.Order.desc("createdAt"), Sort.Order.asc("id")));
+        assertEquals("select e from BenchItem e where (e.amount > :min)"
+                + " and ((e.createdAt < :keyset0) or (e.createdAt = :keyset0 and e.id > :keyset1))"
+                + " order by e.createdAt desc, e.id asc", query.hql(true));
+    }
+
+    @Test
+    public void testNoOrder() {
+        assertThrows(IllegalStateException.class, () -> query().fetch(new KeysetPagination()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static KeysetQuery<BenchItem> query() {
+        EntityType<BenchItem> entity = mock(EntityType.class);
+        when(entity.getName()).thenReturn("BenchItem");
+        doReturn(attribute("createdAt", BenchItem.class)).when(entity).getSingularAttribute("createdAt");
+        doReturn(attribute("id", SequenceEntity.class)).when(entity).getSingularAttribute("id");
+        var metamodel = mock(Metamodel.class);
+        when(metamodel.entity(BenchItem.class)).thenReturn(entity);
+        var entityManager = mock(EntityManager.class);
+        when(entityManager.getMetamodel()).thenReturn(metamodel);
+        return KeysetQuery.of(entityManager, BenchItem.class);
+    }
+
+    private static SingularAttribute<?, ?> attribute(String name, Class<?> owner) {
+        var attribute = mock(SingularAttribute.class);
+        when(attribute.getName()).thenReturn(name);
+        try {
+            when(attribute.getJavaMember()).thenReturn(owner.getDeclaredField(name));
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(e);
+        }
+        return attribute;
+    }
+}
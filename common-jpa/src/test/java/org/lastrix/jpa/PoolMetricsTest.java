@@ -0,0 +1,66 @@
+package org.lastrix.jpa;
+
+import com.zaxxer.hikari.metrics.PoolStats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PoolMetricsTest {
+
+    @Test
+    public void testLateRegistry() {
+        var metrics = new PoolMetrics(Duration.ofMillis(250L), Duration.ofSeconds(10L));
+        // pools start before the registry is there
+        var tracker = metrics.create("primary", new Stats());
+        tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(1L));
+
+        var registry = new SimpleMeterRegistry();
+        metrics.bindTo(registry);
+        tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(2L));
+        tracker.recordConnectionUsageMillis(20L);
+        tracker.recordConnectionTimeout();
+
+        assertEquals(1L, registry.get("mafp.jpa.pool.acquire").tag("pool", "primary").timer().count());
+        assertEquals(1L, registry.get("mafp.jpa.pool.usage").tag("pool", "primary").timer().count());
+        assertEquals(1.0, registry.get("mafp.jpa.pool.timeouts").tag("pool", "primary").functionCounter().count());
+        assertEquals(3.0, registry.get("mafp.jpa.pool.connections").tags("pool", "primary", "state", "active").gauge().value());
+        assertEquals(10.0, registry.get("mafp.jpa.pool.max").tag("pool", "primary").gauge().value());
+    }
+
+    @Test
+    public void testStandardMeters() {
+        var registry = new SimpleMeterRegistry();
+        var metrics = new PoolMetrics(Duration.ZERO, Duration.ZERO);
+        metrics.bindTo(registry);
+        var tracker = metrics.create("primary", new Stats());
+        tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(1L));
+        tracker.recordConnectionUsageMillis(5L);
+        tracker.recordConnectionTimeout();
+
+        // Spring Boot skips pools with a metrics tracker factory, the hikaricp meters must still be there
+        assertEquals(1L, registry.get("hikaricp.connections.acquire").tag("pool", "primary").timer().count());
+        assertEquals(1L, registry.get("hikaricp.connections.usage").tag("pool", "primary").timer().count());
+        assertEquals(1.0, registry.get("hikaricp.connections.timeout").tag("pool", "primary").counter().count());
+        assertEquals(3.0, registry.get("hikaricp.connections.active").tag("pool", "primary").gauge().value());
+    }
+
+    private static final class Stats extends PoolStats {
+        private Stats() {
+            super(0L);
+        }
+
+        @Override
+        protected void update() {
+            totalConnections = 5;
+            activeConnections = 3;
+            idleConnections = 2;
+            pendingThreads = 0;
+            maxConnections = 10;
+            minConnections = 2;
+        }
+    }
+}
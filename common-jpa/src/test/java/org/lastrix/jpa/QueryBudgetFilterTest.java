@@ -0,0 +1,94 @@
+package org.lastrix.jpa;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class QueryBudgetFilterTest {
+    private final Logger logger = (Logger) LoggerFactory.getLogger(QueryBudget.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    public void attach() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    public void detach() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    public void testLogged() throws Exception {
+        var mvc = mvc(new QueryBudget(false), 2);
+        mvc.perform(get("/items").param("statements", "2")).andExpect(status().isOk());
+        assertEquals(List.of(), warnings());
+
+        mvc.perform(get("/items").param("statements", "3")).andExpect(status().isOk());
+        assertEquals(List.of("GET /items ran 3 SQL statements, the budget is 2"), warnings());
+    }
+
+    @Test
+    public void testFail() throws Exception {
+        var mvc = mvc(new QueryBudget(true), 2);
+        mvc.perform(get("/items").param("statements", "2")).andExpect(status().isOk());
+
+        var e = assertThrows(Exception.class, () -> mvc.perform(get("/items").param("statements", "3")));
+        assertTrue(e.getCause() instanceof QueryBudgetExceededException, String.valueOf(e.getCause()));
+        assertTrue(e.getCause().getMessage().startsWith("GET /items exceeded the budget of 2 SQL statements"),
+                e.getCause().getMessage());
+        assertEquals(List.of(), warnings());
+    }
+
+    @Test
+    public void testNoLimit() throws Exception {
+        var mvc = mvc(new QueryBudget(true), 0);
+        mvc.perform(get("/items").param("statements", "10")).andExpect(status().isOk());
+        assertEquals(List.of(), warnings());
+    }
+
+    private static MockMvc mvc(QueryBudget budget, int limit) {
+        return MockMvcBuilders.standaloneSetup(new ItemController(budget))
+                .addFilters(new QueryBudgetFilter(limit))
+                .build();
+    }
+
+    private List<String> warnings() {
+        return appender.list.stream().map(ILoggingEvent::getFormattedMessage).collect(Collectors.toList());
+    }
+
+    /**
+     * Runs the given number of statements through the inspector, as Hibernate does for each one it prepares.
+     */
+    @RestController
+    private static class ItemController {
+        private final QueryBudget budget;
+
+        private ItemController(QueryBudget budget) {
+            this.budget = budget;
+        }
+
+        @GetMapping("/items")
+        public String items(@RequestParam int statements) {
+            for (int i = 0; i < statements; i++) budget.inspect("select * from item where id = " + i);
+            return "ok";
+        }
+    }
+}
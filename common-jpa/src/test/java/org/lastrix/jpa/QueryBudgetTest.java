@@ -0,0 +1,73 @@
+package org.lastrix.jpa;
+
+import org.junit.jupiter.api.Test;
+import org.lastrix.rest.EntityMapper;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class QueryBudgetTest {
+
+    @Test
+    public void testNestedScopes() {
+        var budget = new QueryBudget(false);
+        try (var request = QueryBudget.begin("request", 1)) {
+            budget.inspect("select 1");
+            try (var mapping = QueryBudget.begin("mapping", 0)) {
+                budget.inspect("select 2");
+                budget.inspect("select 3");
+                assertEquals(2, mapping.getCount());
+            }
+            assertEquals(3, request.getCount());
+        }
+        // no scope, nothing to count
+        assertEquals("select 4", budget.inspect("select 4"));
+    }
+
+    @Test
+    public void testFail() {
+        var budget = new QueryBudget(true);
+        try (var ignored = QueryBudget.begin("request", 2)) {
+            budget.inspect("select 1");
+            budget.inspect("select 2");
+            assertThrows(QueryBudgetExceededException.class, () -> budget.inspect("select 3"));
+        }
+    }
+
+    @Test
+    public void testPerEntity() {
+        var budget = new QueryBudget(true);
+        var mapper = QueryBudget.perEntity(new LazyMapper(budget), 1);
+        assertEquals(List.of("1"), List.of(1).stream().map(mapper::toDto).collect(Collectors.toList()));
+        assertThrows(QueryBudgetExceededException.class, () -> mapper.toDto(2));
+        try (var request = QueryBudget.begin("request", 0)) {
+            assertThrows(QueryBudgetExceededException.class, () -> mapper.toDto(3));
+            assertEquals(2, request.getCount());
+        }
+    }
+
+    /**
+     * Runs a statement per unit of the value, like lazy loads of a collection of that size.
+     */
+    private static final class LazyMapper implements EntityMapper<Integer, String> {
+        private final QueryBudget budget;
+
+        private LazyMapper(QueryBudget budget) {
+            this.budget = budget;
+        }
+
+        @Override
+        public Integer fromDto(String dto) {
+            return Integer.valueOf(dto);
+        }
+
+        @Override
+        public String toDto(Integer entity) {
+            for (int i = 0; i < entity; i++) budget.inspect("select " + i);
+            return entity.toString();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.lastrix.jpa;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ReplicaRoutingDataSourceTest {
+
+    @Test
+    public void testCredentials() throws Exception {
+        var primary = mock(DataSource.class);
+        var connection = mock(Connection.class);
+        when(primary.getConnection("user", "secret")).thenReturn(connection);
+        var routing = new ReplicaRoutingDataSource(primary, List.of(), Duration.ofSeconds(1L), Duration.ofSeconds(1L));
+        try {
+            assertSame(connection, routing.getConnection("user", "secret"));
+        } finally {
+            routing.close();
+        }
+    }
+
+    @Test
+    public void testLateMetrics() throws Exception {
+        var primary = mock(DataSource.class);
+        // the proxy reads connection defaults from the primary
+        when(primary.getConnection()).thenReturn(mock(Connection.class));
+        var tuning = new DataSourceTuningPostProcessor(false, -1, -1, 0, 0L, null);
+        var processor = new ReplicaRoutingPostProcessor(tuning, new String[]{"jdbc:postgresql://127.0.0.1:1/db"}, "user", "secret",
+                1, Duration.ofSeconds(1L), Duration.ofHours(1L));
+        try {
+            // meter binders are bound when the registry is created, which may be before the data source
+            var registry = new SimpleMeterRegistry();
+            processor.bindTo(registry);
+            assertNull(registry.find("mafp.jpa.routing.fallbacks").functionCounter());
+            processor.postProcessAfterInitialization(primary, "dataSource");
+            assertNotNull(registry.find("mafp.jpa.routing.fallbacks").functionCounter());
+            assertNotNull(registry.find("mafp.jpa.replica.lag").tag("route", "replica-0").gauge());
+        } finally {
+            processor.destroy();
+        }
+    }
+
+    @Test
+    public void testConnectionHandling() {
+        Map<String, Object> properties = new HashMap<>();
+        ReplicaRoutingPostProcessor.customizer(new String[]{""}).customize(properties);
+        assertTrue(properties.isEmpty());
+
+        properties.put(AvailableSettings.CONNECTION_HANDLING, PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_HOLD);
+        ReplicaRoutingPostProcessor.customizer(new String[]{"jdbc:postgresql://replica/db"}).customize(properties);
+        assertEquals(PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION,
+                properties.get(AvailableSettings.CONNECTION_HANDLING));
+    }
+}
@@ -0,0 +1,93 @@
+package org.lastrix.jpa;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Routing between two unrelated databases, each one has a row telling which one it is.
+ */
+public class ReplicaRoutingTest {
+    private static TestPostgres primary;
+    private static TestPostgres replica;
+
+    @BeforeAll
+    public static void startDatabases() throws Exception {
+        primary = TestPostgres.start();
+        replica = TestPostgres.start();
+        primary.execute("create table route_probe (name varchar(16)); insert into route_probe values ('primary')");
+        replica.execute("create table route_probe (name varchar(16)); insert into route_probe values ('replica')");
+    }
+
+    @AfterAll
+    public static void stopDatabases() {
+        if (primary != null) primary.stop();
+        if (replica != null) replica.stop();
+    }
+
+    @Test
+    public void testRouting() throws Exception {
+        try (var context = primary.context(
+                "mafp.jpa.replicas.urls=" + replica.getJdbcUrl(),
+                "mafp.jpa.replicas.check-interval=100")) {
+            awaitRoute(context, "replica");
+            assertEquals("primary", probe(context, false));
+
+            replica.stop();
+            awaitRoute(context, "primary");
+            assertEquals("primary", probe(context, false));
+        }
+    }
+
+    /**
+     * Transactions sharing an entity manager, as with open-in-view: the write one must not reuse the replica
+     * connection of the read only one.
+     */
+    @Test
+    public void testSharedEntityManager() throws Exception {
+        try (var context = primary.context(
+                "mafp.jpa.replicas.urls=" + replica.getJdbcUrl(),
+                "mafp.jpa.replicas.check-interval=100")) {
+            awaitRoute(context, "replica");
+            var factory = context.getBean(EntityManagerFactory.class);
+            var entityManager = factory.createEntityManager();
+            TransactionSynchronizationManager.bindResource(factory, new EntityManagerHolder(entityManager));
+            try {
+                assertEquals("replica", probe(context, true));
+                assertEquals("primary", probe(context, false));
+                assertEquals("replica", probe(context, true));
+            } finally {
+                TransactionSynchronizationManager.unbindResource(factory);
+                entityManager.close();
+            }
+        }
+    }
+
+    private static void awaitRoute(ConfigurableApplicationContext context, String expected) throws InterruptedException {
+        var until = System.currentTimeMillis() + 10_000L;
+        while (!expected.equals(probe(context, true)) && System.currentTimeMillis() < until) Thread.sleep(100L);
+        assertEquals(expected, probe(context, true));
+    }
+
+    private static String probe(ConfigurableApplicationContext context, boolean readOnly) {
+        var template = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        template.setReadOnly(readOnly);
+        var entityManager = context.getBean(EntityManager.class);
+        return template.execute(status -> {
+            @SuppressWarnings("unchecked")
+            List<String> names = entityManager.createNativeQuery("select name from route_probe").getResultList();
+            return names.get(0);
+        });
+    }
+}
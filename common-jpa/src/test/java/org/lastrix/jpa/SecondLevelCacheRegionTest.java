@@ -0,0 +1,66 @@
+package org.lastrix.jpa;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Limits of region caches, see {@link SecondLevelCache#configuration(String)}.
+ */
+public class SecondLevelCacheRegionTest {
+    private static final String COUNTRY = CachedCountry.class.getName();
+
+    @Test
+    public void testCacheRegion() {
+        var cache = cache();
+        assertLimits(cache, COUNTRY, 60L, 100L);
+        // collection regions are named after the owner entity
+        assertLimits(cache, COUNTRY + ".cities", 60L, 100L);
+    }
+
+    @Test
+    public void testDefaults() {
+        var cache = cache();
+        assertLimits(cache, "org.example.Unknown", 3600L, 1000L);
+        assertLimits(cache, "default-query-results-region", 3600L, 1000L);
+        assertFalse(cache.configuration(COUNTRY).isStoreByValue());
+    }
+
+    @Test
+    public void testRegionsProperty() {
+        var cache = cache("org.example.City:120:50", " org.example.Street:0:20 ", "", COUNTRY + ":30:0");
+        assertLimits(cache, "org.example.City", 120L, 50L);
+        // zero takes the default
+        assertLimits(cache, "org.example.Street", 3600L, 20L);
+        // the property is preferred to the annotation
+        assertLimits(cache, COUNTRY, 30L, 1000L);
+        assertLimits(cache, COUNTRY + ".cities", 60L, 100L);
+    }
+
+    @Test
+    public void testTimestampsNotEvicted() {
+        var configuration = cache("default-update-timestamps-region:10:10").configuration("default-update-timestamps-region");
+        assertEquals(OptionalLong.empty(), configuration.getExpireAfterWrite());
+        assertEquals(OptionalLong.empty(), configuration.getMaximumSize());
+    }
+
+    @Test
+    public void testInvalidRegions() {
+        assertThrows(IllegalArgumentException.class, () -> cache("org.example.City:120"));
+        assertThrows(IllegalArgumentException.class, () -> cache("org.example.City:long:50"));
+    }
+
+    private static SecondLevelCache cache(String... regions) {
+        return new SecondLevelCache(true, true, Duration.ofHours(1L), 1000L, regions);
+    }
+
+    private static void assertLimits(SecondLevelCache cache, String region, long ttl, long maxSize) {
+        var configuration = cache.configuration(region);
+        assertEquals(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttl)), configuration.getExpireAfterWrite(), region);
+        assertEquals(OptionalLong.of(maxSize), configuration.getMaximumSize(), region);
+    }
+}
@@ -0,0 +1,62 @@
+package org.lastrix.jpa;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * SQL statements of repeated reads with the second level cache and without it.
+ */
+public class SecondLevelCacheTest {
+    private static final int READS = 10;
+
+    private static TestPostgres postgres;
+
+    @BeforeAll
+    public static void startDatabase() {
+        postgres = TestPostgres.start();
+    }
+
+    @AfterAll
+    public static void stopDatabase() {
+        if (postgres != null) postgres.stop();
+    }
+
+    @Test
+    public void testRepeatedReads() {
+        assertEquals(READS * 2L, statements(false));
+        assertEquals(1L, statements(true));
+    }
+
+    private long statements(boolean cache) {
+        try (var context = postgres.context(
+                "mafp.jpa.cache.enabled=" + cache,
+                "spring.jpa.properties.hibernate.generate_statistics=true")) {
+            var country = new CachedCountry();
+            country.setName("Narnia");
+            context.getBean(BulkInserter.class).insert(List.of(country));
+            var factory = context.getBean(EntityManagerFactory.class);
+            var statistics = factory.unwrap(SessionFactory.class).getStatistics();
+            statistics.clear();
+            for (int i = 0; i < READS; i++) {
+                var entityManager = factory.createEntityManager();
+                try {
+                    assertEquals("Narnia", entityManager.find(CachedCountry.class, country.getId()).getName());
+                    var names = entityManager.createQuery("select c.name from CachedCountry c", String.class)
+                            .setHint("org.hibernate.cacheable", true)
+                            .getResultList();
+                    assertEquals(List.of("Narnia"), names);
+                } finally {
+                    entityManager.close();
+                }
+            }
+            return statistics.getPrepareStatementCount();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.lastrix.jpa;
+
+import org.lastrix.rest.JwtAutoConfiguration;
+import org.lastrix.rest.RestAutoConfiguration;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Postgres container shared by tests of a class, tests are skipped without Docker.
+ */
+final class TestPostgres {
+    private final PostgreSQLContainer<?> container;
+
+    private TestPostgres() {
+        container = new PostgreSQLContainer<>("postgres:12");
+        container.start();
+    }
+
+    static TestPostgres start() {
+        assumeTrue(isDockerAvailable(), "Docker is not available");
+        return new TestPostgres();
+    }
+
+    void stop() {
+        container.stop();
+    }
+
+    /**
+     * Runs the statement with a connection of its own, outside of any context.
+     */
+    void execute(String sql) throws SQLException {
+        try (var connection = DriverManager.getConnection(container.getJdbcUrl(), container.getUsername(), container.getPassword());
+             var statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    String getJdbcUrl() {
+        return container.getJdbcUrl();
+    }
+
+    /**
+     * @return context of {@link JpaAutoConfiguration} with a fresh schema of test entities
+     */
+    ConfigurableApplicationContext context(String... properties) {
+        var list = new ArrayList<>(List.of(
+                "spring.datasource.url=" + container.getJdbcUrl(),
+                "spring.datasource.username=" + container.getUsername(),
+                "spring.datasource.password=" + container.getPassword(),
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.liquibase.enabled=false"));
+        list.addAll(List.of(properties));
+        return new SpringApplicationBuilder(TestConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .properties(list.toArray(new String[0]))
+                .run();
+    }
+
+    private static boolean isDockerAvailable() {
+        try {
+            DockerClientFactory.instance().client();
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = {RestAutoConfiguration.class, JwtAutoConfiguration.class})
+    @EntityScan(basePackageClasses = TestPostgres.class)
+    public static class TestConfiguration {
+    }
+}
@@ -6,6 +6,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.Collections;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 
@@ -18,19 +19,43 @@ public class Jwt {
 
     private final DecodedJWT decodedJWT;
 
+    // claims are parsed on first access only, values are immutable so racing threads may only repeat the work
+    private volatile UserType userType;
+    @SuppressWarnings("OptionalUsedAsFieldOrParameterType")
+    private volatile Optional<UUID> userId;
+    private volatile Set<String> roles;
+
     public UserType getUserType() {
+        var result = userType;
+        if (result == null) userType = result = parseUserType();
+        return result;
+    }
+
+    public UUID getUserId() {
+        var result = userId;
+        if (result == null) userId = result = Optional.ofNullable(parseUserId());
+        return result.orElse(null);
+    }
+
+    public Set<String> getRoles() {
+        var result = roles;
+        if (result == null) roles = result = parseRoles();
+        return result;
+    }
+
+    private UserType parseUserType() {
         Claim claim = decodedJWT.getClaim(CLAIM_USER_TYPE);
         if (claim.isNull()) return UserType.NONE;
         return UserType.valueOf(claim.asString());
     }
 
-    public UUID getUserId() {
+    private UUID parseUserId() {
         Claim claim = decodedJWT.getClaim(CLAIM_USER_ID);
         if (claim.isNull()) return null;
         return UUID.fromString(claim.asString());
     }
 
-    public Set<String> getRoles() {
+    private Set<String> parseRoles() {
         Claim claim = decodedJWT.getClaim(CLAIM_ROLES);
         if (claim.isNull()) return Collections.emptySet();
         return Set.of(claim.asArray(String.class));
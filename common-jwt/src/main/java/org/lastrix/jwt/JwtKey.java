@@ -0,0 +1,15 @@
+package org.lastrix.jwt;
+
+import com.auth0.jwt.algorithms.Algorithm;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+@Getter
+@ToString(of = {"id", "canSign"})
+@RequiredArgsConstructor
+public final class JwtKey {
+    private final String id;
+    private final Algorithm algorithm;
+    private final boolean canSign;
+}
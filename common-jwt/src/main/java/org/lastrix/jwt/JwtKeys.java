@@ -0,0 +1,32 @@
+package org.lastrix.jwt;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable set of keys known to {@link JwtSecret}, replaced as a whole on reload.
+ */
+public final class JwtKeys {
+    private final Map<String, JwtKey> keys;
+    @Getter
+    private final JwtKey signingKey;
+
+    public JwtKeys(Collection<JwtKey> keys, String signingKeyId) {
+        this.keys = keys.stream().collect(Collectors.toUnmodifiableMap(JwtKey::getId, Function.identity()));
+        this.signingKey = this.keys.get(signingKeyId);
+        if (signingKey == null) throw new IllegalArgumentException("No such key: " + signingKeyId);
+        if (!signingKey.isCanSign()) throw new IllegalArgumentException("Key can not be used for signing: " + signingKeyId);
+    }
+
+    public JwtKey get(String id) {
+        return keys.get(id);
+    }
+
+    public Collection<JwtKey> getAll() {
+        return keys.values();
+    }
+}
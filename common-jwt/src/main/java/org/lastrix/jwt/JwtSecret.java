@@ -1,29 +1,222 @@
 package org.lastrix.jwt;
 
 import com.auth0.jwt.algorithms.Algorithm;
-import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 
 import java.io.BufferedInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.*;
+import java.security.Key;
 import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
-@Getter
-public class JwtSecret {
+/**
+ * Keys used to sign and verify tokens, loaded from a key store where every alias is a key id:
+ * <ul>
+ * <li>private key entries with RSA or EC keys are used for RS256 or ES256/ES384/ES512,</li>
+ * <li>secret key entries (JCEKS, PKCS12) are used for HS256/HS384/HS512,</li>
+ * <li>trusted certificates are used to verify tokens of other issuers only.</li>
+ * </ul>
+ * Tokens are signed by the configured key, or by the most recently created one if none configured.
+ * When loaded from a file the store may be watched and reloaded on change; readers always see a complete key set.
+ */
+@Slf4j
+public class JwtSecret implements AutoCloseable {
     private static final String JKS_PATH = "/jwt.jks";
-    private final Algorithm algorithm = createAlgorithm();
-
-    private Algorithm createAlgorithm() {
-        try (InputStream is = JwtSecret.class.getResourceAsStream(JKS_PATH)) {
-            if (is == null) throw new FileNotFoundException(JKS_PATH);
-            var ks = KeyStore.getInstance("JKS");
-            ks.load(new BufferedInputStream(is), "qwerty".toCharArray());
-            var key = (KeyStore.PrivateKeyEntry) ks.getEntry("1", new KeyStore.PasswordProtection("qwerty".toCharArray()));
-            return Algorithm.RSA256((RSAPublicKey) key.getCertificate().getPublicKey(), (RSAPrivateKey) key.getPrivateKey());
+    private static final String DEFAULT_PASSWORD = "qwerty";
+
+    private final Path path;
+    private final String storeType;
+    private final char[] storePassword;
+    private final char[] keyPassword;
+    private final String signingKeyId;
+    private final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
+    private final WatchService watchService;
+    private volatile JwtKeys keys;
+
+    public JwtSecret() {
+        this(null, "JKS", DEFAULT_PASSWORD, DEFAULT_PASSWORD, null, false);
+    }
+
+    public JwtSecret(JwtKeys keys) {
+        this.path = null;
+        this.storeType = null;
+        this.storePassword = null;
+        this.keyPassword = null;
+        this.signingKeyId = null;
+        this.watchService = null;
+        this.keys = keys;
+    }
+
+    /**
+     * @param path         key store file, classpath '/jwt.jks' if null
+     * @param signingKeyId alias of the key to sign tokens with, may be null
+     * @param watch        reload key store once the file changes
+     */
+    public JwtSecret(Path path, String storeType, String storePassword, String keyPassword, String signingKeyId, boolean watch) {
+        this.path = path;
+        this.storeType = storeType;
+        this.storePassword = storePassword.toCharArray();
+        this.keyPassword = keyPassword.toCharArray();
+        this.signingKeyId = signingKeyId;
+        this.keys = loadKeys();
+        this.watchService = watch && path != null ? startWatching() : null;
+    }
+
+    /**
+     * Algorithm of the signing key, use {@link #getKeys()} to get it along with key id.
+     */
+    public Algorithm getAlgorithm() {
+        return keys.getSigningKey().getAlgorithm();
+    }
+
+    public String getKeyId() {
+        return keys.getSigningKey().getId();
+    }
+
+    public JwtKeys getKeys() {
+        return keys;
+    }
+
+    public void addReloadListener(Runnable listener) {
+        reloadListeners.add(listener);
+    }
+
+    public void reload() {
+        if (storeType == null) throw new IllegalStateException("Jwt secret is not backed by a key store");
+        keys = loadKeys();
+        log.info("Jwt keys reloaded, signing with '{}'", keys.getSigningKey().getId());
+        reloadListeners.forEach(Runnable::run);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (watchService != null) watchService.close();
+    }
+
+    private JwtKeys loadKeys() {
+        try (InputStream is = openStore()) {
+            var ks = KeyStore.getInstance(storeType);
+            ks.load(new BufferedInputStream(is), storePassword);
+            var list = new ArrayList<JwtKey>();
+            String latest = null;
+            Date latestDate = null;
+            for (var alias : Collections.list(ks.aliases())) {
+                var key = toKey(ks, alias);
+                list.add(key);
+                var created = ks.getCreationDate(alias);
+                if (key.isCanSign() && (latest == null || isAfter(created, latestDate))) {
+                    latest = alias;
+                    latestDate = created;
+                }
+            }
+            return new JwtKeys(list, signingKeyId == null || signingKeyId.isEmpty() ? latest : signingKeyId);
         } catch (Exception e) {
             throw new IllegalStateException("Unable to initialize jwt secret", e);
         }
     }
+
+    private static boolean isAfter(Date date, Date other) {
+        return date != null && (other == null || date.after(other));
+    }
+
+    private InputStream openStore() throws IOException {
+        if (path != null) return Files.newInputStream(path);
+        var is = JwtSecret.class.getResourceAsStream(JKS_PATH);
+        if (is == null) throw new FileNotFoundException(JKS_PATH);
+        return is;
+    }
+
+    private JwtKey toKey(KeyStore ks, String alias) throws Exception {
+        if (ks.isCertificateEntry(alias)) {
+            return new JwtKey(alias, toAlgorithm(ks.getCertificate(alias).getPublicKey(), null), false);
+        }
+        var entry = ks.getEntry(alias, new KeyStore.PasswordProtection(keyPassword));
+        if (entry instanceof KeyStore.PrivateKeyEntry) {
+            var pke = (KeyStore.PrivateKeyEntry) entry;
+            return new JwtKey(alias, toAlgorithm(pke.getCertificate().getPublicKey(), pke.getPrivateKey()), true);
+        }
+        if (entry instanceof KeyStore.SecretKeyEntry) {
+            return new JwtKey(alias, toHmacAlgorithm(((KeyStore.SecretKeyEntry) entry).getSecretKey()), true);
+        }
+        throw new IllegalArgumentException("Unsupported key store entry: " + alias);
+    }
+
+    private static Algorithm toAlgorithm(PublicKey publicKey, PrivateKey privateKey) {
+        if (publicKey instanceof RSAPublicKey) {
+            return Algorithm.RSA256((RSAPublicKey) publicKey, (RSAPrivateKey) privateKey);
+        }
+        if (publicKey instanceof ECPublicKey) {
+            var ecPublicKey = (ECPublicKey) publicKey;
+            var ecPrivateKey = (ECPrivateKey) privateKey;
+            var fieldSize = ecPublicKey.getParams().getCurve().getField().getFieldSize();
+            switch (fieldSize) {
+                case 256:
+                    return Algorithm.ECDSA256(ecPublicKey, ecPrivateKey);
+                case 384:
+                    return Algorithm.ECDSA384(ecPublicKey, ecPrivateKey);
+                case 521:
+                    return Algorithm.ECDSA512(ecPublicKey, ecPrivateKey);
+                default:
+                    throw new IllegalArgumentException("Unsupported EC curve size: " + fieldSize);
+            }
+        }
+        throw new IllegalArgumentException("Unsupported key algorithm: " + publicKey.getAlgorithm());
+    }
+
+    private static Algorithm toHmacAlgorithm(Key key) {
+        switch (key.getAlgorithm().toUpperCase(Locale.ROOT)) {
+            case "HMACSHA384":
+                return Algorithm.HMAC384(key.getEncoded());
+            case "HMACSHA512":
+                return Algorithm.HMAC512(key.getEncoded());
+            default:
+                return Algorithm.HMAC256(key.getEncoded());
+        }
+    }
+
+    private WatchService startWatching() {
+        try {
+            var dir = path.toAbsolutePath().getParent();
+            var fileName = path.getFileName();
+            var ws = FileSystems.getDefault().newWatchService();
+            dir.register(ws, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            var thread = new Thread(() -> watch(ws, fileName), "jwt-secret-watcher");
+            thread.setDaemon(true);
+            thread.start();
+            return ws;
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to watch jwt key store: " + path, e);
+        }
+    }
+
+    private void watch(WatchService ws, Path fileName) {
+        try {
+            while (true) {
+                var key = ws.take();
+                var changed = key.pollEvents().stream().anyMatch(e -> fileName.equals(e.context()));
+                key.reset();
+                if (!changed) continue;
+                try {
+                    reload();
+                } catch (RuntimeException e) {
+                    // the file may be written partially, the next event will retry
+                    log.error("Unable to reload jwt key store, keeping previous keys", e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ignored) {
+            // closed
+        }
+    }
 }
@@ -0,0 +1,66 @@
+package org.lastrix.jwt;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Thread safe verifier, picks the key by token 'kid' header; tokens without one are checked with the signing key.
+ * Verifiers are built once per key set of {@link JwtSecret}, so no locking is done on the hot path.
+ * The returned {@link DecodedJWT} is the only decode of the token, no need to call {@link JWT#decode(String)} again.
+ */
+public final class JwtVerifier {
+    private final JwtSecret jwtSecret;
+    private final String issuer;
+    private volatile Verifiers verifiers;
+
+    public JwtVerifier(JwtSecret jwtSecret, String issuer) {
+        this.jwtSecret = jwtSecret;
+        this.issuer = issuer;
+        this.verifiers = new Verifiers(jwtSecret.getKeys(), issuer);
+    }
+
+    public DecodedJWT verify(String token) throws JWTVerificationException {
+        var decoded = JWT.decode(token);
+        return verifiers().get(decoded.getKeyId()).verify(decoded);
+    }
+
+    private Verifiers verifiers() {
+        var keys = jwtSecret.getKeys();
+        var current = verifiers;
+        // racing threads may build the same verifiers twice, that is cheaper than locking
+        if (current.keys != keys) verifiers = current = new Verifiers(keys, issuer);
+        return current;
+    }
+
+    private static final class Verifiers {
+        private final JwtKeys keys;
+        private final Map<String, JWTVerifier> byKeyId;
+        private final JWTVerifier signingKeyVerifier;
+
+        private Verifiers(JwtKeys keys, String issuer) {
+            this.keys = keys;
+            this.byKeyId = keys.getAll().stream()
+                    .collect(Collectors.toUnmodifiableMap(JwtKey::getId, k -> create(k, issuer)));
+            this.signingKeyVerifier = byKeyId.get(keys.getSigningKey().getId());
+        }
+
+        private JWTVerifier get(String keyId) {
+            if (keyId == null) return signingKeyVerifier;
+            var verifier = byKeyId.get(keyId);
+            if (verifier == null) throw new JWTVerificationException("Unknown key id: " + keyId);
+            return verifier;
+        }
+
+        private static JWTVerifier create(JwtKey key, String issuer) {
+            return JWT.require(key.getAlgorithm())
+                    .acceptExpiresAt(0)
+                    .withIssuer(issuer)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.lastrix.rest.test;
+
+import org.lastrix.jpa.QueryBudget;
+
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * {@link ControllerTest} of services using common-jpa, pins the number of SQL statements endpoints run.
+ */
+@SuppressWarnings("unused")
+public class JpaControllerTest extends ControllerTest {
+
+    /**
+     * Runs the action, e.g. {@code () -> listResultGet(Item.class, "/items")}, and checks it ran exactly
+     * the expected number of SQL statements on the test thread.
+     */
+    protected final <T> T expectStatements(int expected, Callable<T> action) throws Exception {
+        T result;
+        int count;
+        try (var scope = QueryBudget.begin("test", 0)) {
+            result = action.call();
+            count = scope.getCount();
+        }
+        assertEquals(expected, count, "SQL statements");
+        return result;
+    }
+}
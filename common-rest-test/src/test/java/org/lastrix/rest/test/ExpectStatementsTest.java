@@ -0,0 +1,48 @@
+package org.lastrix.rest.test;
+
+import org.junit.jupiter.api.Test;
+import org.lastrix.jpa.QueryBudget;
+import org.opentest4j.AssertionFailedError;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link JpaControllerTest#expectStatements(int, Callable)} against a repository running statements through
+ * the inspector, as Hibernate does for each one it prepares.
+ */
+public class ExpectStatementsTest {
+    private final QueryBudget budget = new QueryBudget(false);
+    private final Probe probe = new Probe();
+
+    @Test
+    public void testNPlusOne() {
+        // one query for the orders and one lazy load of lines per order
+        var e = assertThrows(AssertionFailedError.class, () -> probe.expect(1, () -> ordersWithLines(false, 3)));
+        assertEquals(4, e.getActual().getValue());
+    }
+
+    @Test
+    public void testJoinFetch() throws Exception {
+        assertEquals(3, probe.expect(1, () -> ordersWithLines(true, 3)).size());
+    }
+
+    private List<String> ordersWithLines(boolean joinFetch, int orders) {
+        budget.inspect(joinFetch ? "select o.*, l.* from orders o join order_line l on l.order_id = o.id" : "select * from orders");
+        var result = new ArrayList<String>();
+        for (int i = 0; i < orders; i++) {
+            if (!joinFetch) budget.inspect("select * from order_line where order_id = " + i);
+            result.add("order-" + i);
+        }
+        return result;
+    }
+
+    private static final class Probe extends JpaControllerTest {
+        private <T> T expect(int expected, Callable<T> action) throws Exception {
+            return expectStatements(expected, action);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package org.lastrix.rest;
+
+import org.springframework.http.HttpStatus;
+
+public class BadRequestException extends RestException {
+    public BadRequestException(String message) {
+        super(HttpStatus.BAD_REQUEST, message);
+    }
+}
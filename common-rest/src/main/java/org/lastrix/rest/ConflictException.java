@@ -0,0 +1,9 @@
+package org.lastrix.rest;
+
+import org.springframework.http.HttpStatus;
+
+public class ConflictException extends RestException {
+    public ConflictException(String message) {
+        super(HttpStatus.CONFLICT, message);
+    }
+}
@@ -0,0 +1,77 @@
+package org.lastrix.rest;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Point in time by which the current operation should be complete, bound to the current thread.
+ * Outgoing calls pass the remaining time to the callee in {@link #HEADER}, which sets it for the request it serves,
+ * so the whole call chain stops retrying and waiting once the original caller would not wait anymore.
+ */
+public final class Deadline {
+    /**
+     * Remaining time in milliseconds.
+     */
+    public static final String HEADER = "X-Mafp-Deadline";
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long nanos;
+
+    private Deadline(long nanos) {
+        this.nanos = nanos;
+    }
+
+    /**
+     * @return deadline after the given timeout, or the current one if it is earlier
+     */
+    public static Deadline after(Duration timeout) {
+        var deadline = new Deadline(System.nanoTime() + timeout.toNanos());
+        var current = current();
+        return current != null && current.nanos - deadline.nanos < 0L ? current : deadline;
+    }
+
+    /**
+     * @return deadline of the current thread, null if there is none
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0L, nanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return nanos - System.nanoTime() <= 0L;
+    }
+
+    /**
+     * Makes this deadline current until the scope is closed.
+     */
+    public Scope enter() {
+        var previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous == null) CURRENT.remove();
+            else CURRENT.set(previous);
+        };
+    }
+
+    public <T> T call(Supplier<T> action) {
+        try (var ignored = enter()) {
+            return action.get();
+        }
+    }
+
+    public void run(Runnable action) {
+        try (var ignored = enter()) {
+            action.run();
+        }
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,38 @@
+package org.lastrix.rest;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Serves requests within the {@link Deadline} passed by the caller.
+ */
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        var deadline = parse(request.getHeader(Deadline.HEADER));
+        if (deadline == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        try (var ignored = deadline.enter()) {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    private static Deadline parse(String header) {
+        if (header == null || header.isEmpty()) return null;
+        try {
+            return Deadline.after(Duration.ofMillis(Math.max(0L, Long.parseLong(header.trim()))));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
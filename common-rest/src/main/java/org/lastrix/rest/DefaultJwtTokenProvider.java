@@ -1,42 +1,232 @@
 package org.lastrix.rest;
 
 import com.auth0.jwt.JWT;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
 import org.lastrix.jwt.Jwt;
 import org.lastrix.jwt.JwtSecret;
-import org.lastrix.jwt.UserType;
 
+import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.Date;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
-public final class DefaultJwtTokenProvider implements JwtTokenProvider {
+/**
+ * Keeps signed tokens ready: a background thread re-signs them {@code refreshAhead} (minus random jitter)
+ * before expiration, so callers never sign on the hot path. If a token is expired anyway (e.g. the refresh failed)
+ * exactly one caller signs a new one while others wait for it.
+ * <p>
+ * The service token is always kept warm. Tokens for other {@link TokenSpec}s live in a bounded pool and are
+ * refreshed only while used; idle ones are left to expire and get evicted.
+ */
+@Slf4j
+public final class DefaultJwtTokenProvider implements JwtTokenProvider, MeterBinder, AutoCloseable {
+    private static final Duration DEFAULT_REFRESH_AHEAD = Duration.ofSeconds(60);
+    private static final Duration DEFAULT_REFRESH_JITTER = Duration.ofSeconds(10);
+    private static final long DEFAULT_POOL_SIZE = 64L;
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
 
     private final JwtSecret jwtSecret;
-    private final String srvId;
-    private final Long lifetime;
+    private final Duration lifetime;
+    private final Duration refreshAhead;
+    private final Duration refreshJitter;
+
+    private final ScheduledExecutorService scheduler;
+    private final TokenSlot serviceSlot;
+    private final Cache<TokenSpec, TokenSlot> pool;
+
+    private final LongAdder refreshCount = new LongAdder();
+    private final LongAdder refreshNanos = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private final LongAdder inlineRefreshes = new LongAdder();
+    private final LongAdder nearExpiryServed = new LongAdder();
 
     public DefaultJwtTokenProvider(JwtSecret jwtSecret, String srvId, Long lifetime) {
+        this(jwtSecret, srvId, Duration.ofSeconds(lifetime), DEFAULT_REFRESH_AHEAD, DEFAULT_REFRESH_JITTER, DEFAULT_POOL_SIZE);
+    }
+
+    public DefaultJwtTokenProvider(JwtSecret jwtSecret, String srvId, Duration lifetime,
+                                   Duration refreshAhead, Duration refreshJitter, long poolSize) {
+        if (lifetime.isNegative() || lifetime.isZero())
+            throw new IllegalArgumentException("Token lifetime must be positive: " + lifetime);
         this.jwtSecret = jwtSecret;
-        this.srvId = srvId;
         this.lifetime = lifetime;
+        // never refresh earlier than in the middle of token life
+        this.refreshAhead = min(refreshAhead, lifetime.dividedBy(2));
+        this.refreshJitter = min(refreshJitter, lifetime.minus(this.refreshAhead).dividedBy(2));
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            var thread = new Thread(r, "jwt-token-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.pool = Caffeine.newBuilder()
+                .maximumSize(poolSize)
+                .expireAfterAccess(lifetime)
+                .removalListener((TokenSpec spec, TokenSlot slot, RemovalCause cause) -> {
+                    if (slot != null) slot.cancel();
+                })
+                .build();
+        this.serviceSlot = new TokenSlot(TokenSpec.service(srvId), true);
+        serviceSlot.submitRefresh(false);
     }
 
-    private final AtomicReference<TokenWithStamp> reference = new AtomicReference<>(null);
-
     @Override
     public String getToken() {
-        var token = reference.get();
-        if (token != null && token.getExpiration().isAfter(Instant.now())) return token.getToken();
-        var expiration = Instant.now().plus(lifetime, ChronoUnit.SECONDS);
-        var tokenString = "Bearer " + JWT.create()
-                .withExpiresAt(Date.from(expiration))
-                .withIssuer(JwtAutoConfiguration.MAFP_ISSUER)
-                .withClaim(Jwt.CLAIM_USER_TYPE, UserType.SRV.name())
-                .withClaim(Jwt.CLAIM_USER_ID, srvId)
-                .withArrayClaim(Jwt.CLAIM_ROLES, new String[]{"ServiceUser"})
-                .sign(jwtSecret.getAlgorithm());
-        reference.compareAndSet(token, new TokenWithStamp(tokenString, expiration));
-        return tokenString;
+        return serviceSlot.getToken();
+    }
+
+    @Override
+    public String getToken(TokenSpec spec) {
+        if (serviceSlot.spec.equals(spec)) return serviceSlot.getToken();
+        return pool.get(spec, s -> new TokenSlot(s, false)).getToken();
+    }
+
+    /**
+     * Re-sign the service token in background and drop pooled ones, e.g. once signing key has changed.
+     */
+    public void invalidateAll() {
+        pool.invalidateAll();
+        serviceSlot.submitRefresh(true);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionTimer.builder("mafp.jwt.token.refresh", this,
+                p -> p.refreshCount.sum(), p -> p.refreshNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Token signing")
+                .register(registry);
+        FunctionCounter.builder("mafp.jwt.token.refresh.failures", this, p -> p.refreshFailures.sum())
+                .register(registry);
+        FunctionCounter.builder("mafp.jwt.token.refresh.inline", this, p -> p.inlineRefreshes.sum())
+                .description("Tokens signed on the caller thread because there was no valid one")
+                .register(registry);
+        FunctionCounter.builder("mafp.jwt.token.near-expiry", this, p -> p.nearExpiryServed.sum())
+                .description("Tokens served within the refresh-ahead window")
+                .register(registry);
+        Gauge.builder("mafp.jwt.token.pool.size", pool, Cache::estimatedSize)
+                .description("Token shapes kept besides the service one")
+                .register(registry);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        pool.invalidateAll();
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    private final class TokenSlot {
+        private final TokenSpec spec;
+        private final boolean pinned;
+        private final String[] roles;
+        private final AtomicReference<TokenWithStamp> reference = new AtomicReference<>(null);
+        private final Object refreshLock = new Object();
+        private ScheduledFuture<?> scheduledRefresh;
+        private final AtomicBoolean dormant = new AtomicBoolean(false);
+        private volatile boolean used;
+
+        private TokenSlot(TokenSpec spec, boolean pinned) {
+            this.spec = spec;
+            this.pinned = pinned;
+            this.roles = spec.getRoles().toArray(String[]::new);
+        }
+
+        private String getToken() {
+            if (!used) used = true;
+            var token = reference.get();
+            var now = Instant.now();
+            if (token == null || !token.getExpiration().isAfter(now)) return inlineRefresh().getToken();
+            if (!token.getExpiration().minus(refreshAhead).isAfter(now)) {
+                nearExpiryServed.increment();
+                if (dormant.compareAndSet(true, false)) submitRefresh(false);
+            }
+            return token.getToken();
+        }
+
+        private TokenWithStamp inlineRefresh() {
+            synchronized (refreshLock) {
+                var token = reference.get();
+                if (token != null && token.getExpiration().isAfter(Instant.now())) return token;
+                inlineRefreshes.increment();
+                return refresh();
+            }
+        }
+
+        private void submitRefresh(boolean force) {
+            var expected = reference.get();
+            if (scheduler.isShutdown()) return;
+            scheduler.execute(() -> backgroundRefresh(force ? reference.get() : expected));
+        }
+
+        // expected is the token this refresh was planned for, if it was replaced meanwhile there is nothing to do
+        private void backgroundRefresh(TokenWithStamp expected) {
+            synchronized (refreshLock) {
+                if (reference.get() != expected) return;
+                if (!pinned && !used) {
+                    log.debug("Token {} was not used since last refresh, letting it expire", spec);
+                    dormant.set(true);
+                    return;
+                }
+                used = false;
+                try {
+                    refresh();
+                } catch (RuntimeException e) {
+                    refreshFailures.increment();
+                    log.error("Unable to refresh token {}, retrying in {}", spec, RETRY_DELAY, e);
+                    schedule(RETRY_DELAY, expected);
+                }
+            }
+        }
+
+        // must be called under refreshLock
+        private TokenWithStamp refresh() {
+            var start = System.nanoTime();
+            var expiration = Instant.now().plus(lifetime);
+            var builder = JWT.create()
+                    .withExpiresAt(Date.from(expiration))
+                    .withIssuer(JwtAutoConfiguration.MAFP_ISSUER)
+                    .withClaim(Jwt.CLAIM_USER_TYPE, spec.getUserType().name())
+                    .withArrayClaim(Jwt.CLAIM_ROLES, roles);
+            if (spec.getSubject() != null) builder.withClaim(Jwt.CLAIM_USER_ID, spec.getSubject());
+            var key = jwtSecret.getKeys().getSigningKey();
+            builder.withKeyId(key.getId());
+            var token = new TokenWithStamp(JwtAutoConfiguration.PREFIX + builder.sign(key.getAlgorithm()), expiration);
+            reference.set(token);
+            dormant.set(false);
+            refreshCount.increment();
+            refreshNanos.add(System.nanoTime() - start);
+            schedule(lifetime.minus(refreshAhead).minusMillis(jitterMillis()), token);
+            return token;
+        }
+
+        private void schedule(Duration delay, TokenWithStamp expected) {
+            if (scheduler.isShutdown()) return;
+            if (scheduledRefresh != null) scheduledRefresh.cancel(false);
+            scheduledRefresh = scheduler.schedule(() -> backgroundRefresh(expected), delay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        private void cancel() {
+            synchronized (refreshLock) {
+                if (scheduledRefresh != null) scheduledRefresh.cancel(false);
+            }
+        }
+
+        private long jitterMillis() {
+            var bound = refreshJitter.toMillis();
+            return bound <= 0 ? 0L : ThreadLocalRandom.current().nextLong(bound);
+        }
     }
 }
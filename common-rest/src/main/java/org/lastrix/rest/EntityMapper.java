@@ -4,4 +4,11 @@ public interface EntityMapper<E, D> {
     E fromDto(D dto);
 
     D toDto(E entity);
+
+    /**
+     * @return true if {@link #toDto(Object)} may run on other threads, see {@link ParallelMapping}
+     */
+    default boolean isConcurrent() {
+        return false;
+    }
 }
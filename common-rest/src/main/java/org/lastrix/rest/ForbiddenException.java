@@ -0,0 +1,9 @@
+package org.lastrix.rest;
+
+import org.springframework.http.HttpStatus;
+
+public class ForbiddenException extends RestException {
+    public ForbiddenException(String message) {
+        super(HttpStatus.FORBIDDEN, message);
+    }
+}
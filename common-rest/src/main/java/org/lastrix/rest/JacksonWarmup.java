@@ -0,0 +1,37 @@
+package org.lastrix.rest;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Builds and caches serializers and deserializers ahead of the first request,
+ * for {@link Rest}, {@link Pagination} and every given DTO type wrapped in {@link Rest}.
+ */
+@Slf4j
+public final class JacksonWarmup {
+    private JacksonWarmup() {
+    }
+
+    public static void warmup(ObjectMapper mapper, Collection<Class<?>> dtoTypes) {
+        var start = System.nanoTime();
+        var tf = mapper.getTypeFactory();
+        List<JavaType> types = new ArrayList<>();
+        types.add(tf.constructType(Pagination.class));
+        types.add(tf.constructParametricType(Rest.class, Boolean.class));
+        for (var dtoType : dtoTypes) {
+            types.add(tf.constructType(dtoType));
+            types.add(tf.constructParametricType(Rest.class, dtoType));
+        }
+        for (var type : types) {
+            // both prefetch root (de)serializers into caches shared with the mapper
+            mapper.writerFor(type);
+            mapper.readerFor(type);
+        }
+        log.info("Jackson warmed up for {} types in {} ms", types.size(), (System.nanoTime() - start) / 1_000_000L);
+    }
+}
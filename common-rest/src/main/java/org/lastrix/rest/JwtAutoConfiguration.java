@@ -1,9 +1,9 @@
 package org.lastrix.rest;
 
-import com.auth0.jwt.JWT;
 import lombok.extern.slf4j.Slf4j;
 import org.lastrix.jwt.Jwt;
 import org.lastrix.jwt.JwtSecret;
+import org.lastrix.jwt.JwtVerifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Scope;
@@ -12,6 +12,8 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.web.context.WebApplicationContext;
 
 import javax.servlet.http.HttpServletRequest;
+import java.nio.file.Path;
+import java.time.Duration;
 
 @Slf4j
 public class JwtAutoConfiguration {
@@ -20,30 +22,50 @@ public class JwtAutoConfiguration {
     public static final String MAFP_ISSUER = "mafp.lastrix.org";
 
     @Bean
-    public JwtSecret jwtSecret() {
-        return new JwtSecret();
+    public JwtSecret jwtSecret(
+            @Value("${mafp.jwt.key-store.path:}") String path,
+            @Value("${mafp.jwt.key-store.type:JKS}") String type,
+            @Value("${mafp.jwt.key-store.password:qwerty}") String password,
+            @Value("${mafp.jwt.key-store.key-password:qwerty}") String keyPassword,
+            @Value("${mafp.jwt.key-store.watch:true}") boolean watch,
+            @Value("${mafp.jwt.signing-key-id:}") String signingKeyId) {
+        return new JwtSecret(path.isEmpty() ? null : Path.of(path), type, password, keyPassword, signingKeyId, watch);
+    }
+
+    @Bean
+    public JwtVerifier jwtVerifier(JwtSecret jwtSecret) {
+        return new JwtVerifier(jwtSecret, MAFP_ISSUER);
+    }
+
+    @Bean
+    public VerifiedTokenCache verifiedTokenCache(@Value("${mafp.jwt.cache.size:10000}") Long size, JwtSecret jwtSecret) {
+        var cache = new VerifiedTokenCache(size);
+        // tokens of removed keys must not outlive them
+        jwtSecret.addReloadListener(cache::invalidateAll);
+        return cache;
     }
 
     @Scope(value = WebApplicationContext.SCOPE_REQUEST, proxyMode = ScopedProxyMode.TARGET_CLASS)
     @Bean
-    public Jwt jwt(HttpServletRequest request, JwtSecret jwtSecret) {
+    public Jwt jwt(HttpServletRequest request, JwtVerifier jwtVerifier, VerifiedTokenCache verifiedTokenCache) {
         var token = request.getHeader(HttpHeaders.AUTHORIZATION);
         if (!token.startsWith(PREFIX)) throw new IllegalArgumentException("Invalid jwt token passed: " + token);
         token = token.substring(PREFIX.length()).trim();
-        JWT.require(jwtSecret.getAlgorithm())
-                .acceptExpiresAt(0)
-                .withIssuer(MAFP_ISSUER)
-                .build()
-                .verify(token);
-        return new Jwt(JWT.decode(token));
+        return new Jwt(verifiedTokenCache.verify(token, jwtVerifier::verify));
     }
 
     @Bean
-    public JwtTokenProvider srvJwtTokenProvider(
+    public DefaultJwtTokenProvider srvJwtTokenProvider(
             @Value("${mafp.srv-id:7fffffff-ffff-ffff-0000-000000000000}") String srvId,
             @Value("${mafp.jwt.lifetime:300}") Long lifetime,
+            @Value("${mafp.jwt.refresh-ahead:60}") Long refreshAhead,
+            @Value("${mafp.jwt.refresh-jitter:10}") Long refreshJitter,
+            @Value("${mafp.jwt.pool.size:64}") Long poolSize,
             JwtSecret jwtSecret) {
-        return new DefaultJwtTokenProvider(jwtSecret, srvId, lifetime);
+        var provider = new DefaultJwtTokenProvider(jwtSecret, srvId, Duration.ofSeconds(lifetime),
+                Duration.ofSeconds(refreshAhead), Duration.ofSeconds(refreshJitter), poolSize);
+        jwtSecret.addReloadListener(provider::invalidateAll);
+        return provider;
     }
 
 }
@@ -2,4 +2,9 @@ package org.lastrix.rest;
 
 public interface JwtTokenProvider {
     String getToken();
+
+    /**
+     * @return token of the requested shape, the service token is returned only for the service spec
+     */
+    String getToken(TokenSpec spec);
 }
@@ -0,0 +1,63 @@
+package org.lastrix.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Sort key values of a row, encoded as an opaque url safe string.
+ */
+public final class KeysetCursor {
+    // times keep their full precision, unlike in answers
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final ArrayNode values;
+
+    private KeysetCursor(ArrayNode values) {
+        this.values = values;
+    }
+
+    public static String encode(List<?> values) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(values));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unable to encode cursor values: " + values, e);
+        }
+    }
+
+    /**
+     * @throws BadRequestException if the cursor is malformed
+     */
+    public static KeysetCursor decode(String cursor) {
+        try {
+            var node = MAPPER.readTree(Base64.getUrlDecoder().decode(cursor));
+            if (node instanceof ArrayNode) return new KeysetCursor((ArrayNode) node);
+        } catch (IllegalArgumentException | IOException ignored) {
+            // reported below
+        }
+        throw new BadRequestException("Malformed cursor: " + cursor);
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * @throws BadRequestException if the value is not of the type
+     */
+    public <T> T get(int index, Class<T> type) {
+        try {
+            return MAPPER.convertValue(values.get(index), type);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Malformed cursor value #" + index + " of " + type.getSimpleName());
+        }
+    }
+}
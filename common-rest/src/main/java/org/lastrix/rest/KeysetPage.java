@@ -0,0 +1,26 @@
+package org.lastrix.rest;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Rows of a page of {@link KeysetPagination} and the cursor of the next one, null if it is the last page.
+ */
+@Getter
+@RequiredArgsConstructor
+public final class KeysetPage<T> {
+    private final List<T> content;
+    private final String next;
+
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    public <R> KeysetPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new KeysetPage<>(content.stream().map(mapper).collect(Collectors.toList()), next);
+    }
+}
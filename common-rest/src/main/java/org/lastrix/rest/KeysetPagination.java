@@ -0,0 +1,50 @@
+package org.lastrix.rest;
+
+import lombok.*;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
+/**
+ * Pagination by sort keys of the last row seen, pages are found by an index without skipping rows,
+ * so the latency does not depend on how deep the client pages. There are no totals.
+ */
+@SuppressWarnings("unused")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class KeysetPagination {
+    /**
+     * Cursor of the last row of the previous page, none for the first page.
+     */
+    private String after;
+    @Min(1)
+    @Max(100)
+    private int pageSize = 20;
+    /**
+     * Cursor of the next page in answers, none on the last page.
+     */
+    private String next;
+
+    public KeysetPagination(KeysetPagination pagination) {
+        setAfter(pagination.getAfter());
+        setPageSize(pagination.getPageSize());
+        setNext(pagination.getNext());
+    }
+
+    /**
+     * @return decoded {@link #after}, null for the first page
+     */
+    public KeysetCursor cursor() {
+        return after == null || after.isEmpty() ? null : KeysetCursor.decode(after);
+    }
+
+    public KeysetPagination nextPagination() {
+        var p = new KeysetPagination(this);
+        p.setAfter(next);
+        p.setNext(null);
+        return p;
+    }
+}
@@ -0,0 +1,9 @@
+package org.lastrix.rest;
+
+import org.springframework.http.HttpStatus;
+
+public class NotFoundException extends RestException {
+    public NotFoundException(String message) {
+        super(HttpStatus.NOT_FOUND, message);
+    }
+}
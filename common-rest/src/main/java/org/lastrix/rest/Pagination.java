@@ -9,7 +9,6 @@ import javax.validation.constraints.Min;
 
 @SuppressWarnings("unused")
 @Data
-@AllArgsConstructor
 @NoArgsConstructor
 @EqualsAndHashCode
 @ToString(callSuper = true)
@@ -21,12 +20,28 @@ public class Pagination {
     private int pageSize = 20;
     private Integer pageCount;
     private Long totalCount;
+    /**
+     * Totals asked by the client, the default of the endpoint if none.
+     */
+    private Totals totals;
+
+    public Pagination(int page, int pageSize, Integer pageCount, Long totalCount) {
+        this.page = page;
+        this.pageSize = pageSize;
+        this.pageCount = pageCount;
+        this.totalCount = totalCount;
+    }
 
     public Pagination(Pagination pagination) {
         setPage(pagination.getPage());
         setPageSize(pagination.getPageSize());
         setPageCount(pagination.getPageCount());
         setTotalCount(pagination.getTotalCount());
+        setTotals(pagination.getTotals());
+    }
+
+    public boolean isTotalsSkipped() {
+        return totals == Totals.NONE;
     }
 
     public PageRequest toPageable() {
@@ -43,4 +58,15 @@ public class Pagination {
         return p;
     }
 
+    public enum Totals {
+        /**
+         * No counting, pages are slices.
+         */
+        NONE,
+        /**
+         * Totals may be estimated or cached, cheap to get for large tables.
+         */
+        APPROXIMATE,
+        EXACT
+    }
 }
@@ -0,0 +1,130 @@
+package org.lastrix.rest;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+
+/**
+ * Maps entities to DTOs for {@link Rest#of} on a pool of its own, never the common one. Collections of at least
+ * {@code threshold} elements are split into chunks of {@code chunkSize}, the calling thread maps the first one.
+ * The order is kept, the first failure by position is rethrown as it was thrown by the mapper.
+ * <p>
+ * Only mappers returning true from {@link EntityMapper#isConcurrent()} are run in parallel: workers see the current
+ * {@link Deadline}, but no other state of the calling thread, e.g. the persistence context for lazy loading,
+ * and statements they run are not counted by query budget scopes of the caller.
+ * <p>
+ * {@link Rest#of} uses the instance {@link #enter() entered} by the current thread, e.g. by {@link ParallelMappingFilter}
+ * for requests of the context owning it, otherwise the first {@link #install(ParallelMapping) installed} one still alive,
+ * so several contexts in one JVM do not map with pools of each other.
+ */
+public final class ParallelMapping implements DisposableBean {
+    private static final ThreadLocal<ParallelMapping> CURRENT = new ThreadLocal<>();
+    private static final Deque<ParallelMapping> INSTALLED = new ConcurrentLinkedDeque<>();
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+    private final int chunkSize;
+
+    /**
+     * @param parallelism threads of the pool, zero to map sequentially
+     */
+    public ParallelMapping(int parallelism, int threshold, int chunkSize) {
+        if (chunkSize < 1) throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        this.pool = parallelism <= 0 ? null : new ForkJoinPool(parallelism, pool -> {
+            var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("rest-mapping-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+        this.threshold = Math.max(threshold, chunkSize + 1);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Makes {@link Rest#of} use the instance on threads which entered none, until it is destroyed.
+     */
+    public static void install(ParallelMapping mapping) {
+        INSTALLED.addLast(Objects.requireNonNull(mapping));
+    }
+
+    /**
+     * Maps with the current instance, sequentially if there is none or the mapper is not concurrent.
+     */
+    public static <E, D> List<D> mapAll(Collection<E> entities, EntityMapper<E, D> mapper) {
+        var mapping = CURRENT.get();
+        if (mapping == null) mapping = INSTALLED.peekFirst();
+        if (mapping == null || !mapper.isConcurrent()) {
+            return entities.stream().map(mapper::toDto).collect(Collectors.toList());
+        }
+        return mapping.map(entities, mapper);
+    }
+
+    public <E, D> List<D> map(Collection<E> entities, EntityMapper<E, D> mapper) {
+        var list = entities instanceof List ? (List<E>) entities : new ArrayList<>(entities);
+        if (pool == null || list.size() < threshold || ForkJoinTask.inForkJoinPool()) {
+            return list.stream().map(mapper::toDto).collect(Collectors.toList());
+        }
+        var result = new Object[list.size()];
+        var failures = new Throwable[(list.size() + chunkSize - 1) / chunkSize];
+        var deadline = Deadline.current();
+        var tasks = new ArrayList<ForkJoinTask<?>>(failures.length - 1);
+        for (int chunk = 1; chunk < failures.length; chunk++) {
+            var index = chunk;
+            tasks.add(pool.submit(() -> {
+                if (deadline == null) mapChunk(list, mapper, result, failures, index);
+                else deadline.run(() -> mapChunk(list, mapper, result, failures, index));
+            }));
+        }
+        mapChunk(list, mapper, result, failures, 0);
+        for (var task : tasks) task.join();
+        for (var failure : failures) {
+            if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+            if (failure instanceof Error) throw (Error) failure;
+            if (failure != null) throw new IllegalStateException("Mapping failed", failure);
+        }
+        @SuppressWarnings("unchecked")
+        var items = (List<D>) Arrays.asList(result);
+        return new ArrayList<>(items);
+    }
+
+    /**
+     * Makes {@link Rest#of} use this instance on the current thread until the scope is closed.
+     */
+    public Scope enter() {
+        var previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous == null) CURRENT.remove();
+            else CURRENT.set(previous);
+        };
+    }
+
+    @Override
+    public void destroy() {
+        INSTALLED.remove(this);
+        if (pool != null) pool.shutdown();
+    }
+
+    private <E, D> void mapChunk(List<E> list, EntityMapper<E, D> mapper, Object[] result, Throwable[] failures, int chunk) {
+        var end = Math.min(list.size(), (chunk + 1) * chunkSize);
+        try {
+            for (int i = chunk * chunkSize; i < end; i++) result[i] = mapper.toDto(list.get(i));
+        } catch (Throwable e) {
+            failures[chunk] = e;
+        }
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,28 @@
+package org.lastrix.rest;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Serves requests with the {@link ParallelMapping} of the context the filter belongs to.
+ */
+public class ParallelMappingFilter extends OncePerRequestFilter {
+    private final ParallelMapping mapping;
+
+    public ParallelMappingFilter(ParallelMapping mapping) {
+        this.mapping = mapping;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try (var ignored = mapping.enter()) {
+            filterChain.doFilter(request, response);
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package org.lastrix.rest;
 
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -12,17 +11,23 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @SuppressWarnings("unused")
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class Rest<T> {
     private boolean success;
     private List<String> errors;
     private List<T> data;
     private Pagination pagination;
+    private KeysetPagination keyset;
+
+    public Rest(boolean success, List<String> errors, List<T> data, Pagination pagination) {
+        this.success = success;
+        this.errors = errors;
+        this.data = data;
+        this.pagination = pagination;
+    }
 
     public Rest(boolean success, List<String> errors) {
         this.success = success;
@@ -65,7 +70,7 @@ public class Rest<T> {
     }
 
     public static <E, D> Rest<D> of(Collection<E> result, EntityMapper<E, D> mapper) {
-        return of(result.stream().map(mapper::toDto).collect(Collectors.toList()));
+        return of(ParallelMapping.mapAll(result, mapper));
     }
 
     public static <T> Rest<T> of(List<T> result, Pagination pagination) {
@@ -75,7 +80,7 @@ public class Rest<T> {
 
     public static <T> Rest<T> of(Slice<T> result, Pagination pagination) {
         var p = new Pagination(pagination);
-        if (result instanceof Page) {
+        if (result instanceof Page && !pagination.isTotalsSkipped()) {
             var page = (Page<T>) result;
             p.setPageCount(page.getTotalPages());
             p.setTotalCount(page.getTotalElements());
@@ -85,15 +90,27 @@ public class Rest<T> {
 
     public static <E, D> Rest<D> of(Slice<E> result, Pagination pagination, EntityMapper<E, D> mapper) {
         var p = new Pagination(pagination);
-        if (result instanceof Page) {
+        if (result instanceof Page && !pagination.isTotalsSkipped()) {
             var page = (Page<E>) result;
             p.setPageCount(page.getTotalPages());
             p.setTotalCount(page.getTotalElements());
         }
-        var items = result.getContent()
-                .stream()
-                .map(mapper::toDto)
-                .collect(Collectors.toList());
-        return new Rest<>(items, p);
+        return new Rest<>(ParallelMapping.mapAll(result.getContent(), mapper), p);
+    }
+
+    public static <T> Rest<T> of(KeysetPage<T> result, KeysetPagination pagination) {
+        var rest = new Rest<>(result.getContent());
+        rest.setKeyset(keyset(result, pagination));
+        return rest;
+    }
+
+    public static <E, D> Rest<D> of(KeysetPage<E> result, KeysetPagination pagination, EntityMapper<E, D> mapper) {
+        return of(new KeysetPage<>(ParallelMapping.mapAll(result.getContent(), mapper), result.getNext()), pagination);
+    }
+
+    private static KeysetPagination keyset(KeysetPage<?> result, KeysetPagination pagination) {
+        var p = new KeysetPagination(pagination);
+        p.setNext(result.getNext());
+        return p;
     }
 }
@@ -8,17 +8,87 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.datatype.jsr310.ser.InstantSerializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
+import org.springframework.util.ClassUtils;
 
 import java.time.Instant;
 import java.time.format.DateTimeFormatterBuilder;
+import java.util.ArrayList;
+import java.util.List;
 
 public class RestAutoConfiguration {
 
+    @Value("${mafp.rest.jackson.warmup-types:}")
+    private String[] warmupTypes = new String[0];
+
     //Jackson Data Binder
     @Bean
     public ObjectMapper objectMapper() {
-        return new ObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL)
+        var mapper = createObjectMapper();
+        JacksonWarmup.warmup(mapper, loadTypes(warmupTypes));
+        return mapper;
+    }
+
+    @Bean
+    public WireFormatMappers wireFormatMappers(ObjectMapper objectMapper) {
+        var mappers = new WireFormatMappers(objectMapper);
+        var types = loadTypes(warmupTypes);
+        for (var format : WireFormat.values()) {
+            if (format.isBinary()) JacksonWarmup.warmup(mappers.get(format), types);
+        }
+        return mappers;
+    }
+
+    @Bean
+    public WireFormatWebMvcConfigurer wireFormatWebMvcConfigurer(
+            WireFormatMappers wireFormatMappers,
+            @Value("${mafp.rest.wire-formats:smile,cbor}") String[] formats) {
+        var list = new ArrayList<WireFormat>();
+        for (var format : formats) {
+            if (!format.isBlank()) list.add(WireFormat.of(format));
+        }
+        return new WireFormatWebMvcConfigurer(wireFormatMappers, list);
+    }
+
+    @Bean
+    public DeadlineFilter deadlineFilter() {
+        return new DeadlineFilter();
+    }
+
+    /**
+     * Maps DTOs of concurrent mappers in parallel if 'mafp.rest.mapping.parallelism' is set, see {@link ParallelMapping}.
+     */
+    @Bean
+    public ParallelMapping parallelMapping(
+            @Value("${mafp.rest.mapping.parallelism:0}") int parallelism,
+            @Value("${mafp.rest.mapping.threshold:64}") int threshold,
+            @Value("${mafp.rest.mapping.chunk-size:16}") int chunkSize) {
+        var mapping = new ParallelMapping(parallelism, threshold, chunkSize);
+        ParallelMapping.install(mapping);
+        return mapping;
+    }
+
+    @Bean
+    public ParallelMappingFilter parallelMappingFilter(ParallelMapping parallelMapping) {
+        return new ParallelMappingFilter(parallelMapping);
+    }
+
+    @Bean
+    public RestStreamHttpMessageConverter restStreamHttpMessageConverter(ObjectMapper objectMapper) {
+        return new RestStreamHttpMessageConverter(objectMapper);
+    }
+
+    public static ObjectMapper createObjectMapper() {
+        return createObjectMapper(WireFormat.JSON);
+    }
+
+    public static ObjectMapper createObjectMapper(WireFormat format) {
+        return configure(new ObjectMapper(format.createFactory()));
+    }
+
+    public static ObjectMapper configure(ObjectMapper mapper) {
+        return mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL)
                 .setVisibility(PropertyAccessor.GETTER, JsonAutoDetect.Visibility.NONE)
                 .setVisibility(PropertyAccessor.IS_GETTER, JsonAutoDetect.Visibility.NONE)
                 .setVisibility(PropertyAccessor.SETTER, JsonAutoDetect.Visibility.NONE)
@@ -30,6 +100,19 @@ public class RestAutoConfiguration {
                 .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
     }
 
+    private static List<Class<?>> loadTypes(String[] names) {
+        var list = new ArrayList<Class<?>>();
+        for (var name : names) {
+            if (name.isBlank()) continue;
+            try {
+                list.add(ClassUtils.forName(name.trim(), RestAutoConfiguration.class.getClassLoader()));
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("Unable to load warmup type: " + name, e);
+            }
+        }
+        return list;
+    }
+
     public static class InstantSerializerWithMilliSecondPrecision extends InstantSerializer {
         public InstantSerializerWithMilliSecondPrecision() {
             super(InstantSerializer.INSTANCE, false, new DateTimeFormatterBuilder().appendInstant(3).toFormatter());
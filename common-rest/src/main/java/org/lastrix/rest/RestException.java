@@ -0,0 +1,24 @@
+package org.lastrix.rest;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Expected failure answered with the given status and the message as the error.
+ * Has no stack trace, it is cheap to throw and is not logged as a failure of the service.
+ */
+public class RestException extends RuntimeException {
+    private final HttpStatus status;
+
+    public RestException(HttpStatus status, String message) {
+        this(status, message, null);
+    }
+
+    public RestException(HttpStatus status, String message, Throwable cause) {
+        super(message, cause, false, false);
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
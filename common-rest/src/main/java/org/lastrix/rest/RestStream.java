@@ -0,0 +1,64 @@
+package org.lastrix.rest;
+
+import lombok.Getter;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streaming counterpart of {@link Rest} for large results: elements are mapped one by one while the response
+ * is written by {@link RestStreamHttpMessageConverter}, so nothing is materialized.
+ * The source stream is closed once the response is written.
+ */
+public final class RestStream<E, D> implements AutoCloseable {
+    public static final int DEFAULT_FLUSH_EVERY = 1000;
+
+    private final Iterator<E> iterator;
+    private final EntityMapper<E, D> mapper;
+    private final AutoCloseable source;
+    @Getter
+    private Pagination pagination;
+    @Getter
+    private int flushEvery = DEFAULT_FLUSH_EVERY;
+
+    private RestStream(Iterator<E> iterator, EntityMapper<E, D> mapper, AutoCloseable source) {
+        this.iterator = iterator;
+        this.mapper = mapper;
+        this.source = source;
+    }
+
+    public static <E, D> RestStream<E, D> of(Stream<E> result, EntityMapper<E, D> mapper) {
+        return new RestStream<>(result.iterator(), mapper, result);
+    }
+
+    public static <E, D> RestStream<E, D> of(Iterator<E> result, EntityMapper<E, D> mapper) {
+        return new RestStream<>(result, mapper, null);
+    }
+
+    public RestStream<E, D> withPagination(Pagination pagination) {
+        this.pagination = new Pagination(pagination);
+        return this;
+    }
+
+    /**
+     * @param flushEvery elements written between flushes to the client, 0 to flush once at the end
+     */
+    public RestStream<E, D> flushEvery(int flushEvery) {
+        if (flushEvery < 0) throw new IllegalArgumentException("Negative flush interval: " + flushEvery);
+        this.flushEvery = flushEvery;
+        return this;
+    }
+
+    public boolean hasNext() {
+        return iterator.hasNext();
+    }
+
+    public D next() {
+        return mapper.toDto(iterator.next());
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (source != null) source.close();
+    }
+}
@@ -0,0 +1,82 @@
+package org.lastrix.rest;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link RestStream} as the usual {@link Rest} envelope straight to the response.
+ * Once the first element is written the status can not be changed, so failures while mapping abort the response.
+ */
+public class RestStreamHttpMessageConverter extends AbstractHttpMessageConverter<RestStream<?, ?>> {
+    private final ObjectMapper mapper;
+    private final ObjectWriter writer;
+
+    public RestStreamHttpMessageConverter(ObjectMapper mapper) {
+        this(mapper, MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * @param mapper    json or binary format mapper, its factory creates the generator
+     * @param mediaType type the mapper produces
+     */
+    public RestStreamHttpMessageConverter(ObjectMapper mapper, MediaType mediaType) {
+        super(mediaType);
+        this.mapper = mapper;
+        // flushing is controlled by RestStream
+        this.writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return RestStream.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected RestStream<?, ?> readInternal(Class<? extends RestStream<?, ?>> clazz, HttpInputMessage inputMessage)
+            throws HttpMessageNotReadableException {
+        throw new HttpMessageNotReadableException("RestStream can not be read", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(RestStream<?, ?> rest, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        try (rest; var gen = mapper.getFactory().createGenerator(StreamUtils.nonClosing(outputMessage.getBody()), JsonEncoding.UTF8)) {
+            gen.writeStartObject();
+            gen.writeBooleanField("success", true);
+            gen.writeArrayFieldStart("data");
+            var flushEvery = rest.getFlushEvery();
+            var count = 0L;
+            while (rest.hasNext()) {
+                writer.writeValue(gen, rest.next());
+                if (flushEvery > 0 && ++count % flushEvery == 0) gen.flush();
+            }
+            gen.writeEndArray();
+            if (rest.getPagination() != null) {
+                gen.writeFieldName("pagination");
+                writer.writeValue(gen, rest.getPagination());
+            }
+            gen.writeEndObject();
+            gen.flush();
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new HttpMessageNotWritableException("Unable to close result stream", e);
+        }
+    }
+}
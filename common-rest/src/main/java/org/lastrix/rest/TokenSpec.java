@@ -0,0 +1,34 @@
+package org.lastrix.rest;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.lastrix.jwt.UserType;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Shape of a token issued by {@link JwtTokenProvider}: tokens with equal specs are interchangeable.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class TokenSpec {
+    public static final String SERVICE_ROLE = "ServiceUser";
+
+    private final UserType userType;
+    private final String subject;
+    private final Set<String> roles;
+
+    public TokenSpec(UserType userType, String subject, Collection<String> roles) {
+        if (userType == null) throw new IllegalArgumentException("User type required");
+        this.userType = userType;
+        this.subject = subject;
+        this.roles = Set.copyOf(roles);
+    }
+
+    public static TokenSpec service(String srvId) {
+        return new TokenSpec(UserType.SRV, srvId, Set.of(SERVICE_ROLE));
+    }
+}
@@ -0,0 +1,107 @@
+package org.lastrix.rest;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Keeps already verified tokens keyed by their SHA-256 digest until the token 'exp' claim,
+ * so repeated requests with the same token skip signature verification.
+ * Tokens without expiration are never cached.
+ */
+public final class VerifiedTokenCache implements MeterBinder {
+    private static final String CACHE_NAME = "mafp.jwt.verified";
+
+    private final ThreadLocal<MessageDigest> digest = ThreadLocal.withInitial(VerifiedTokenCache::createDigest);
+    private final Cache<ByteBuffer, DecodedJWT> cache;
+    private final boolean enabled;
+
+    public VerifiedTokenCache(long maxSize) {
+        enabled = maxSize > 0;
+        cache = Caffeine.newBuilder()
+                .maximumSize(Math.max(maxSize, 0L))
+                .expireAfter(new ExpiresAtExpiry())
+                .recordStats()
+                .build();
+    }
+
+    public DecodedJWT verify(String token, Function<String, DecodedJWT> verifier) {
+        if (!enabled) return verifier.apply(token);
+        var key = digest(token);
+        var jwt = cache.get(key, k -> verifier.apply(token));
+        if (isExpired(jwt)) {
+            // expiry is tracked with nanoTime, wall clock may disagree a bit
+            cache.invalidate(key);
+            return verifier.apply(token);
+        }
+        return jwt;
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME, Collections.emptyList());
+    }
+
+    private ByteBuffer digest(String token) {
+        var md = digest.get();
+        md.reset();
+        return ByteBuffer.wrap(md.digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static boolean isExpired(DecodedJWT jwt) {
+        var expiresAt = jwt.getExpiresAt();
+        return expiresAt != null && expiresAt.getTime() <= System.currentTimeMillis();
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+    private static final class ExpiresAtExpiry implements Expiry<ByteBuffer, DecodedJWT> {
+        @Override
+        public long expireAfterCreate(ByteBuffer key, DecodedJWT value, long currentTime) {
+            var expiresAt = value.getExpiresAt();
+            if (expiresAt == null) return 0L;
+            return Math.max(0L, TimeUnit.MILLISECONDS.toNanos(expiresAt.getTime() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, DecodedJWT value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, DecodedJWT value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.lastrix.rest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Encodings of {@link Rest} envelopes understood by services built with this library.
+ * External clients always get JSON, binary formats are meant for service to service calls.
+ */
+public enum WireFormat {
+    JSON(MediaType.APPLICATION_JSON, JsonFactory::new),
+    SMILE(new MediaType("application", "x-jackson-smile"), SmileFactory::new),
+    CBOR(MediaType.APPLICATION_CBOR, CBORFactory::new);
+
+    private final MediaType mediaType;
+    private final Supplier<JsonFactory> factory;
+
+    WireFormat(MediaType mediaType, Supplier<JsonFactory> factory) {
+        this.mediaType = mediaType;
+        this.factory = factory;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public boolean isBinary() {
+        return this != JSON;
+    }
+
+    public JsonFactory createFactory() {
+        return factory.get();
+    }
+
+    public static WireFormat of(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown wire format: " + name, e);
+        }
+    }
+
+    /**
+     * @return format of the given content type, JSON if it is missing or unknown
+     */
+    public static WireFormat fromContentType(String contentType) {
+        if (contentType == null || contentType.isEmpty()) return JSON;
+        MediaType type;
+        try {
+            type = MediaType.parseMediaType(contentType);
+        } catch (IllegalArgumentException e) {
+            return JSON;
+        }
+        for (var format : values()) {
+            if (format.isBinary() && format.mediaType.isCompatibleWith(type) && !type.isWildcardSubtype()) return format;
+        }
+        return JSON;
+    }
+}
@@ -0,0 +1,28 @@
+package org.lastrix.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * ObjectMapper per {@link WireFormat}, all configured as the JSON one from {@link RestAutoConfiguration}.
+ */
+public final class WireFormatMappers {
+    private final Map<WireFormat, ObjectMapper> mappers = new EnumMap<>(WireFormat.class);
+
+    public WireFormatMappers(ObjectMapper jsonMapper) {
+        mappers.put(WireFormat.JSON, jsonMapper);
+        for (var format : WireFormat.values()) {
+            if (format.isBinary()) mappers.put(format, RestAutoConfiguration.createObjectMapper(format));
+        }
+    }
+
+    public ObjectMapper get(WireFormat format) {
+        return mappers.get(format);
+    }
+
+    public ObjectMapper forContentType(String contentType) {
+        return get(WireFormat.fromContentType(contentType));
+    }
+}
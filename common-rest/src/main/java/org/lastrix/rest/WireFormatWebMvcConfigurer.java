@@ -0,0 +1,38 @@
+package org.lastrix.rest;
+
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Serves binary {@link WireFormat}s to clients asking for them.
+ * Converters are appended after JSON, so requests accepting anything still get JSON.
+ * Spring default Smile and CBOR converters are replaced as they do not share the library ObjectMapper settings.
+ */
+public class WireFormatWebMvcConfigurer implements WebMvcConfigurer {
+    private final WireFormatMappers mappers;
+    private final Collection<WireFormat> formats;
+
+    public WireFormatWebMvcConfigurer(WireFormatMappers mappers, Collection<WireFormat> formats) {
+        this.mappers = mappers;
+        this.formats = formats;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(c -> c instanceof MappingJackson2SmileHttpMessageConverter
+                || c instanceof MappingJackson2CborHttpMessageConverter);
+        for (var format : formats) {
+            if (!format.isBinary()) continue;
+            var mapper = mappers.get(format);
+            converters.add(new RestStreamHttpMessageConverter(mapper, format.getMediaType()));
+            converters.add(format == WireFormat.SMILE
+                    ? new MappingJackson2SmileHttpMessageConverter(mapper)
+                    : new MappingJackson2CborHttpMessageConverter(mapper));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.lastrix.rest;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeysetCursorTest {
+
+    @Test
+    public void testRoundTrip() {
+        var createdAt = Instant.parse("2020-01-01T10:15:30.123456Z");
+        var id = UUID.randomUUID();
+        var cursor = KeysetCursor.decode(KeysetCursor.encode(List.of(createdAt, id, 42L)));
+        assertEquals(3, cursor.size());
+        assertEquals(createdAt, cursor.get(0, Instant.class));
+        assertEquals(id, cursor.get(1, UUID.class));
+        assertEquals(42L, cursor.get(2, Long.class));
+    }
+
+    @Test
+    public void testMalformed() {
+        assertThrows(BadRequestException.class, () -> KeysetCursor.decode("not a cursor"));
+        assertThrows(BadRequestException.class, () -> KeysetCursor.decode(KeysetCursor.encode(List.of()).substring(1)));
+        var cursor = KeysetCursor.decode(KeysetCursor.encode(List.of("text")));
+        assertThrows(BadRequestException.class, () -> cursor.get(0, Instant.class));
+    }
+
+    @Test
+    public void testRest() {
+        var pagination = new KeysetPagination();
+        var rest = Rest.of(new KeysetPage<>(List.of(1, 2), "next").map(String::valueOf), pagination);
+        assertEquals(List.of("1", "2"), rest.getData());
+        assertEquals("next", rest.getKeyset().getNext());
+        assertNull(rest.getPagination());
+        assertEquals("next", rest.getKeyset().nextPagination().getAfter());
+    }
+}
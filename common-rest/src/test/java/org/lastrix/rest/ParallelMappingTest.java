@@ -0,0 +1,140 @@
+package org.lastrix.rest;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelMappingTest {
+    private static ParallelMapping mapping;
+
+    @BeforeAll
+    public static void install() {
+        mapping = new ParallelMapping(4, 10, 3);
+        ParallelMapping.install(mapping);
+    }
+
+    @AfterAll
+    public static void uninstall() {
+        mapping.destroy();
+    }
+
+    @Test
+    public void testOrder() {
+        var entities = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+        var rest = Rest.of(entities, new Mapper(true));
+        assertEquals(entities.stream().map(String::valueOf).collect(Collectors.toList()), rest.getData());
+    }
+
+    @Test
+    public void testMutableResult() {
+        var entities = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+        var dtos = mapping.map(entities, new Mapper(true));
+        dtos.add("extra");
+        assertEquals(101, dtos.size());
+    }
+
+    @Test
+    public void testEntered() {
+        var entities = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+        var caller = Thread.currentThread().getName();
+        var sequential = new ParallelMapping(0, 10, 3);
+        try (var ignored = sequential.enter()) {
+            assertTrue(Rest.of(entities, new ThreadMapper()).getData().stream().allMatch(caller::equals));
+        } finally {
+            sequential.destroy();
+        }
+        assertTrue(Rest.of(entities, new ThreadMapper()).getData().stream().anyMatch(n -> n.startsWith("rest-mapping-")));
+    }
+
+    @Test
+    public void testInstalledByOtherContext() {
+        var entities = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+        var other = new ParallelMapping(0, 10, 3);
+        ParallelMapping.install(other);
+        // the first one installed stays the default, destroying the other does not uninstall it
+        assertTrue(Rest.of(entities, new ThreadMapper()).getData().stream().anyMatch(n -> n.startsWith("rest-mapping-")));
+        other.destroy();
+        assertTrue(Rest.of(entities, new ThreadMapper()).getData().stream().anyMatch(n -> n.startsWith("rest-mapping-")));
+    }
+
+    @Test
+    public void testFirstFailure() {
+        var entities = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+        var e = assertThrows(NumberFormatException.class, () -> Rest.of(entities, new Mapper(true) {
+            @Override
+            public String toDto(Integer entity) {
+                if (entity % 40 == 39) throw new NumberFormatException("at " + entity);
+                return super.toDto(entity);
+            }
+        }));
+        assertEquals("at 39", e.getMessage());
+    }
+
+    @Test
+    public void testDeadline() {
+        var entities = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+        var deadlines = Deadline.after(Duration.ofMinutes(1L)).call(() -> Rest.of(entities, new Mapper(true) {
+            @Override
+            public String toDto(Integer entity) {
+                return Boolean.toString(Deadline.current() != null);
+            }
+        }));
+        assertTrue(deadlines.getData().stream().allMatch("true"::equals));
+    }
+
+    @Test
+    public void testSequential() {
+        var caller = Thread.currentThread().getName();
+        var threads = Rest.of(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11), new Mapper(false) {
+            @Override
+            public String toDto(Integer entity) {
+                return Thread.currentThread().getName();
+            }
+        });
+        assertTrue(threads.getData().stream().allMatch(caller::equals));
+    }
+
+    private static final class ThreadMapper extends Mapper {
+        private ThreadMapper() {
+            super(true);
+        }
+
+        @Override
+        public String toDto(Integer entity) {
+            // slow enough for workers to take chunks before the caller is done with its own
+            LockSupport.parkNanos(100_000L);
+            return Thread.currentThread().getName();
+        }
+    }
+
+    private static class Mapper implements EntityMapper<Integer, String> {
+        private final boolean concurrent;
+
+        private Mapper(boolean concurrent) {
+            this.concurrent = concurrent;
+        }
+
+        @Override
+        public Integer fromDto(String dto) {
+            return Integer.valueOf(dto);
+        }
+
+        @Override
+        public String toDto(Integer entity) {
+            return entity.toString();
+        }
+
+        @Override
+        public boolean isConcurrent() {
+            return concurrent;
+        }
+    }
+}
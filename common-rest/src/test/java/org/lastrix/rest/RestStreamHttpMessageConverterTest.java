@@ -0,0 +1,57 @@
+package org.lastrix.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RestStreamHttpMessageConverterTest {
+    private final ObjectMapper mapper = new RestAutoConfiguration().objectMapper();
+
+    @Test
+    public void testWrite() throws Exception {
+        var closed = new AtomicBoolean();
+        var stream = IntStream.range(0, 2500).boxed().onClose(() -> closed.set(true));
+        var rest = RestStream.of(stream, new ToStringMapper())
+                .withPagination(new Pagination(1, 50, null, null))
+                .flushEvery(100);
+        var out = new MockHttpOutputMessage();
+        new RestStreamHttpMessageConverter(mapper).write(rest, MediaType.APPLICATION_JSON, out);
+
+        Rest<String> result = mapper.readValue(out.getBodyAsBytes(),
+                mapper.getTypeFactory().constructParametricType(Rest.class, String.class));
+        assertTrue(result.isSuccess());
+        assertNull(result.getErrors());
+        assertEquals(2500, result.getData().size());
+        assertEquals("2499", result.getData().get(2499));
+        assertEquals(1, result.getPagination().getPage());
+        assertTrue(closed.get());
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        var out = new MockHttpOutputMessage();
+        new RestStreamHttpMessageConverter(mapper).write(RestStream.of(List.<Integer>of().iterator(), new ToStringMapper()),
+                MediaType.APPLICATION_JSON, out);
+
+        assertEquals("{\"success\":true,\"data\":[]}", out.getBodyAsString());
+    }
+
+    private static final class ToStringMapper implements EntityMapper<Integer, String> {
+        @Override
+        public Integer fromDto(String dto) {
+            return Integer.valueOf(dto);
+        }
+
+        @Override
+        public String toDto(Integer entity) {
+            return entity.toString();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.lastrix.rest;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WireFormatTest {
+    private final WireFormatMappers mappers = new WireFormatMappers(RestAutoConfiguration.createObjectMapper());
+
+    @Test
+    public void testFromContentType() {
+        assertEquals(WireFormat.JSON, WireFormat.fromContentType(null));
+        assertEquals(WireFormat.JSON, WireFormat.fromContentType("application/json;charset=UTF-8"));
+        assertEquals(WireFormat.JSON, WireFormat.fromContentType("*/*"));
+        assertEquals(WireFormat.JSON, WireFormat.fromContentType("garbage"));
+        assertEquals(WireFormat.SMILE, WireFormat.fromContentType("application/x-jackson-smile"));
+        assertEquals(WireFormat.CBOR, WireFormat.fromContentType("application/cbor"));
+    }
+
+    @Test
+    public void testSameSettings() throws Exception {
+        var rest = Rest.of(Instant.ofEpochMilli(1_500_000_000_123L));
+        var type = mappers.get(WireFormat.JSON).getTypeFactory().constructParametricType(Rest.class, String.class);
+        for (var format : WireFormat.values()) {
+            var mapper = mappers.get(format);
+            Rest<String> read = mapper.readValue(mapper.writeValueAsBytes(rest), type);
+            assertTrue(read.isSuccess());
+            // null errors and pagination are skipped, instants written as ISO strings with millis
+            assertNull(read.getErrors());
+            assertEquals("2017-07-14T02:40:00.123Z", read.getData().get(0));
+        }
+    }
+
+    @Test
+    public void testConvertersAfterJson() {
+        List<HttpMessageConverter<?>> converters = new ArrayList<>();
+        converters.add(new MappingJackson2HttpMessageConverter());
+        converters.add(new MappingJackson2SmileHttpMessageConverter());
+        new WireFormatWebMvcConfigurer(mappers, List.of(WireFormat.SMILE, WireFormat.CBOR)).extendMessageConverters(converters);
+
+        assertEquals(5, converters.size());
+        assertTrue(converters.get(0) instanceof MappingJackson2HttpMessageConverter);
+        var smile = (MappingJackson2SmileHttpMessageConverter) converters.get(2);
+        assertSame(mappers.get(WireFormat.SMILE), smile.getObjectMapper());
+    }
+}
@@ -0,0 +1,58 @@
+package org.lastrix.rest.jwt;
+
+import org.junit.jupiter.api.Test;
+import org.lastrix.jwt.Jwt;
+import org.lastrix.jwt.JwtSecret;
+import org.lastrix.jwt.JwtVerifier;
+import org.lastrix.jwt.UserType;
+import org.lastrix.rest.DefaultJwtTokenProvider;
+import org.lastrix.rest.JwtAutoConfiguration;
+import org.lastrix.rest.TokenSpec;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DefaultJwtTokenProviderTest {
+    private final JwtSecret jwtSecret = new JwtSecret();
+    private final JwtVerifier verifier = new JwtVerifier(jwtSecret, JwtAutoConfiguration.MAFP_ISSUER);
+
+    @Test
+    public void testServiceToken() {
+        var srvId = new UUID(Long.MAX_VALUE, 3L).toString();
+        try (var provider = new DefaultJwtTokenProvider(jwtSecret, srvId, 300L)) {
+            var token = provider.getToken();
+            assertSame(token, provider.getToken());
+            assertSame(token, provider.getToken(TokenSpec.service(srvId)));
+
+            var jwt = parse(token);
+            assertEquals(UserType.SRV, jwt.getUserType());
+            assertEquals(srvId, jwt.getUserId().toString());
+            assertEquals(Set.of(TokenSpec.SERVICE_ROLE), jwt.getRoles());
+        }
+    }
+
+    @Test
+    public void testPooledToken() {
+        var subject = new UUID(1L, 1L).toString();
+        var spec = new TokenSpec(UserType.PERSON, subject, Set.of("User", "Admin"));
+        try (var provider = new DefaultJwtTokenProvider(jwtSecret, subject, Duration.ofSeconds(300),
+                Duration.ofSeconds(60), Duration.ofSeconds(10), 4L)) {
+            var token = provider.getToken(spec);
+            assertSame(token, provider.getToken(new TokenSpec(UserType.PERSON, subject, Set.of("Admin", "User"))));
+            assertNotEquals(token, provider.getToken(new TokenSpec(UserType.PERSON, subject, Set.of("User"))));
+
+            var jwt = parse(token);
+            assertEquals(UserType.PERSON, jwt.getUserType());
+            assertEquals(subject, jwt.getUserId().toString());
+            assertEquals(Set.of("User", "Admin"), jwt.getRoles());
+        }
+    }
+
+    private Jwt parse(String token) {
+        assertTrue(token.startsWith(JwtAutoConfiguration.PREFIX));
+        return new Jwt(verifier.verify(token.substring(JwtAutoConfiguration.PREFIX.length())));
+    }
+}
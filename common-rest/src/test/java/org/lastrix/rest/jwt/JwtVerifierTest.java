@@ -0,0 +1,49 @@
+package org.lastrix.rest.jwt;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import org.junit.jupiter.api.Test;
+import org.lastrix.jwt.*;
+import org.lastrix.rest.JwtAutoConfiguration;
+
+import java.security.KeyPairGenerator;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtVerifierTest {
+    @Test
+    public void testKeyIdDispatch() throws Exception {
+        var generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(256);
+        var pair = generator.generateKeyPair();
+        var ec = new JwtKey("ec", Algorithm.ECDSA256((ECPublicKey) pair.getPublic(), (ECPrivateKey) pair.getPrivate()), true);
+        var hmac = new JwtKey("hmac", Algorithm.HMAC256("secret"), true);
+        var verifier = new JwtVerifier(new JwtSecret(new JwtKeys(List.of(ec, hmac), "ec")),
+                JwtAutoConfiguration.MAFP_ISSUER);
+
+        assertEquals("ec", verifier.verify(token(ec.getId(), ec.getAlgorithm())).getKeyId());
+        assertEquals("hmac", verifier.verify(token(hmac.getId(), hmac.getAlgorithm())).getKeyId());
+        // no key id - signing key
+        assertNull(verifier.verify(token(null, ec.getAlgorithm())).getKeyId());
+        assertThrows(JWTVerificationException.class, () -> verifier.verify(token(null, hmac.getAlgorithm())));
+        assertThrows(JWTVerificationException.class, () -> verifier.verify(token("unknown", hmac.getAlgorithm())));
+        // key id and algorithm mismatch
+        assertThrows(JWTVerificationException.class, () -> verifier.verify(token("ec", hmac.getAlgorithm())));
+    }
+
+    private static String token(String keyId, Algorithm algorithm) {
+        return JWT.create()
+                .withKeyId(keyId)
+                .withExpiresAt(Date.from(Instant.now().plus(1, ChronoUnit.HOURS)))
+                .withIssuer(JwtAutoConfiguration.MAFP_ISSUER)
+                .withClaim(Jwt.CLAIM_USER_TYPE, UserType.SRV.name())
+                .sign(algorithm);
+    }
+}
@@ -0,0 +1,93 @@
+package org.lastrix.rest.jwt;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.exceptions.TokenExpiredException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.junit.jupiter.api.Test;
+import org.lastrix.jwt.Jwt;
+import org.lastrix.jwt.JwtSecret;
+import org.lastrix.jwt.UserType;
+import org.lastrix.rest.JwtAutoConfiguration;
+import org.lastrix.rest.VerifiedTokenCache;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VerifiedTokenCacheTest {
+    private final JwtSecret jwtSecret = new JwtSecret();
+
+    @Test
+    public void testVerifiedOnce() {
+        var cache = new VerifiedTokenCache(16);
+        var calls = new AtomicInteger();
+        var token = token(Instant.now().plus(1, ChronoUnit.HOURS));
+        Function<String, DecodedJWT> verifier = t -> {
+            calls.incrementAndGet();
+            return verify(t);
+        };
+        var first = cache.verify(token, verifier);
+        var second = cache.verify(token, verifier);
+
+        assertEquals(1, calls.get());
+        assertSame(first, second);
+        assertEquals(1L, cache.stats().hitCount());
+        assertEquals(1L, cache.stats().missCount());
+    }
+
+    @Test
+    public void testExpiredNotServed() throws InterruptedException {
+        var cache = new VerifiedTokenCache(16);
+        var calls = new AtomicInteger();
+        // exp is kept in whole seconds and the verifier truncates now to seconds too, so a whole second
+        // expiration is exact and the token is rejected once the next second starts
+        var expiration = Instant.now().truncatedTo(ChronoUnit.SECONDS).plusSeconds(2L);
+        var token = token(expiration);
+        Function<String, DecodedJWT> verifier = t -> {
+            calls.incrementAndGet();
+            return verify(t);
+        };
+        cache.verify(token, verifier);
+        Thread.sleep(Math.max(0L, expiration.toEpochMilli() - System.currentTimeMillis()) + 1100L);
+
+        assertThrows(TokenExpiredException.class, () -> cache.verify(token, verifier));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testDisabled() {
+        var cache = new VerifiedTokenCache(0);
+        var calls = new AtomicInteger();
+        var token = token(Instant.now().plus(1, ChronoUnit.HOURS));
+        Function<String, DecodedJWT> verifier = t -> {
+            calls.incrementAndGet();
+            return verify(t);
+        };
+        cache.verify(token, verifier);
+        cache.verify(token, verifier);
+
+        assertEquals(2, calls.get());
+        assertEquals(0L, cache.size());
+    }
+
+    private String token(Instant expiration) {
+        return JWT.create()
+                .withExpiresAt(Date.from(expiration))
+                .withIssuer(JwtAutoConfiguration.MAFP_ISSUER)
+                .withClaim(Jwt.CLAIM_USER_TYPE, UserType.SRV.name())
+                .withArrayClaim(Jwt.CLAIM_ROLES, new String[]{"ServiceUser"})
+                .sign(jwtSecret.getAlgorithm());
+    }
+
+    private DecodedJWT verify(String token) {
+        return JWT.require(jwtSecret.getAlgorithm())
+                .acceptExpiresAt(0)
+                .withIssuer(JwtAutoConfiguration.MAFP_ISSUER)
+                .build()
+                .verify(token);
+    }
+}
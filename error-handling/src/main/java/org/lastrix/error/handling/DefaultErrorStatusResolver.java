@@ -0,0 +1,49 @@
+package org.lastrix.error.handling;
+
+import org.lastrix.rest.RestException;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.validation.BindException;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
+import org.springframework.web.HttpRequestMethodNotSupportedException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.ServletRequestBindingException;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+import org.springframework.web.multipart.support.MissingServletRequestPartException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.NoHandlerFoundException;
+
+import javax.validation.ConstraintViolationException;
+
+/**
+ * Statuses of {@link RestException}, {@link ResponseStatusException}, errors annotated with {@link ResponseStatus}
+ * and request errors of Spring MVC; anything else is an internal server error.
+ */
+public final class DefaultErrorStatusResolver implements ErrorStatusResolver {
+
+    @Override
+    public HttpStatus resolve(Throwable throwable) {
+        if (throwable instanceof RestException) return ((RestException) throwable).getStatus();
+        if (throwable instanceof ResponseStatusException) return ((ResponseStatusException) throwable).getStatus();
+        if (throwable instanceof MethodArgumentNotValidException
+                || throwable instanceof BindException
+                || throwable instanceof ConstraintViolationException
+                || throwable instanceof HttpMessageNotReadableException
+                || throwable instanceof TypeMismatchException
+                || throwable instanceof ServletRequestBindingException
+                || throwable instanceof MissingServletRequestPartException) {
+            return HttpStatus.BAD_REQUEST;
+        }
+        if (throwable instanceof NoHandlerFoundException) return HttpStatus.NOT_FOUND;
+        if (throwable instanceof HttpRequestMethodNotSupportedException) return HttpStatus.METHOD_NOT_ALLOWED;
+        if (throwable instanceof HttpMediaTypeNotAcceptableException) return HttpStatus.NOT_ACCEPTABLE;
+        if (throwable instanceof HttpMediaTypeNotSupportedException) return HttpStatus.UNSUPPORTED_MEDIA_TYPE;
+        if (throwable instanceof AsyncRequestTimeoutException) return HttpStatus.SERVICE_UNAVAILABLE;
+        var annotation = AnnotatedElementUtils.findMergedAnnotation(throwable.getClass(), ResponseStatus.class);
+        return annotation == null ? HttpStatus.INTERNAL_SERVER_ERROR : annotation.code();
+    }
+}
@@ -1,10 +1,20 @@
 package org.lastrix.error.handling;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 
+import java.time.Duration;
+import java.util.stream.Collectors;
+
 public class ErrorHandlingAutoConfiguration {
     @Bean
-    public RestErrorHandlerController restErrorHandlerController() {
-        return new RestErrorHandlerController();
+    public RestErrorHandlerController restErrorHandlerController(
+            ObjectProvider<ErrorStatusResolver> resolvers,
+            @Value("${mafp.error-handling.log.max-stack-traces:10}") int maxStackTraces,
+            @Value("${mafp.error-handling.log.interval:60}") long interval,
+            @Value("${mafp.error-handling.log.sample-every:100}") long sampleEvery) {
+        return new RestErrorHandlerController(resolvers.orderedStream().collect(Collectors.toList()),
+                maxStackTraces, Duration.ofSeconds(interval), sampleEvery);
     }
 }
@@ -0,0 +1,53 @@
+package org.lastrix.error.handling;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allows at most {@code maxPerInterval} stack traces of each exception type per interval and counts the rest.
+ * Past the limit one of every {@code sampleEvery} errors is still allowed, so a long storm keeps fresh samples
+ * in the log; zero disables sampling.
+ */
+final class ErrorLogLimiter {
+    private final int maxPerInterval;
+    private final long intervalNanos;
+    private final long sampleEvery;
+    private final Map<Class<?>, Window> windows = new ConcurrentHashMap<>();
+
+    ErrorLogLimiter(int maxPerInterval, Duration interval, long sampleEvery) {
+        if (sampleEvery < 0L) throw new IllegalArgumentException("Sample rate must not be negative: " + sampleEvery);
+        this.maxPerInterval = maxPerInterval;
+        this.intervalNanos = interval.toNanos();
+        this.sampleEvery = sampleEvery;
+    }
+
+    /**
+     * @return -1 if the error must not be logged, otherwise the number of errors of the type suppressed since
+     * the last one logged
+     */
+    long tryAcquire(Class<?> type) {
+        var now = System.nanoTime();
+        var window = windows.computeIfAbsent(type, t -> new Window(now));
+        var start = window.start.get();
+        if (now - start >= intervalNanos && window.start.compareAndSet(start, now)) window.logged.set(0);
+        if (window.logged.incrementAndGet() <= maxPerInterval) return window.suppressed.getAndSet(0L);
+        var suppressed = window.suppressed.incrementAndGet();
+        if (sampleEvery > 0L && suppressed >= sampleEvery && window.suppressed.compareAndSet(suppressed, 0L)) {
+            return suppressed - 1L;
+        }
+        return -1L;
+    }
+
+    private static final class Window {
+        private final AtomicLong start;
+        private final AtomicInteger logged = new AtomicInteger();
+        private final AtomicLong suppressed = new AtomicLong();
+
+        private Window(long start) {
+            this.start = new AtomicLong(start);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.lastrix.error.handling;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Status of the answer to a failed request. Beans of this type are asked in their order
+ * before {@link DefaultErrorStatusResolver}.
+ */
+@FunctionalInterface
+public interface ErrorStatusResolver {
+    /**
+     * @return status for the error, null if it is not known to this resolver
+     */
+    HttpStatus resolve(Throwable throwable);
+}
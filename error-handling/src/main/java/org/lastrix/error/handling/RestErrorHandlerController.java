@@ -4,22 +4,68 @@ import lombok.extern.slf4j.Slf4j;
 import org.lastrix.rest.Rest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import javax.servlet.http.HttpServletRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * Answers failed requests with a {@link Rest} error and the status of {@link ErrorStatusResolver}s.
+ * Only server errors are logged with stack traces, limited and sampled per exception type,
+ * client errors are logged at debug level.
+ */
 @Slf4j
 @ControllerAdvice
 public class RestErrorHandlerController {
+    private final List<ErrorStatusResolver> resolvers;
+    private final ErrorLogLimiter logLimiter;
+
+    public RestErrorHandlerController() {
+        this(List.of(), 10, Duration.ofMinutes(1), 100L);
+    }
+
+    public RestErrorHandlerController(List<ErrorStatusResolver> resolvers, int maxStackTraces, Duration interval) {
+        this(resolvers, maxStackTraces, interval, 100L);
+    }
+
+    /**
+     * @param maxStackTraces stack traces logged per exception type within the interval, others are counted
+     * @param sampleEvery    one of this many errors over the limit is logged anyway, zero to log none
+     */
+    public RestErrorHandlerController(List<ErrorStatusResolver> resolvers, int maxStackTraces, Duration interval,
+                                      long sampleEvery) {
+        var list = new ArrayList<>(resolvers);
+        list.add(new DefaultErrorStatusResolver());
+        this.resolvers = List.copyOf(list);
+        this.logLimiter = new ErrorLogLimiter(maxStackTraces, interval, sampleEvery);
+    }
+
     @ExceptionHandler
     public ResponseEntity<Rest<Void>> handleError(HttpServletRequest request, Throwable throwable) {
-        log.error("from '{}' -> {} {}",
-                StringUtils.isEmpty(request.getRemoteHost()) ? request.getRemoteAddr() : request.getRemoteHost(),
-                request.getMethod(), request.getRequestURL(), throwable);
-
-        return Rest.error(throwable.getMessage(), HttpStatus.OK);
+        var status = resolve(throwable);
+        if (status.is5xxServerError()) {
+            var suppressed = logLimiter.tryAcquire(throwable.getClass());
+            if (suppressed > 0L) {
+                log.error("from '{}' -> {} {} ({} similar errors were not logged)",
+                        request.getRemoteAddr(), request.getMethod(), request.getRequestURI(), suppressed, throwable);
+            } else if (suppressed == 0L) {
+                log.error("from '{}' -> {} {}", request.getRemoteAddr(), request.getMethod(), request.getRequestURI(), throwable);
+            }
+        } else if (log.isDebugEnabled()) {
+            log.debug("from '{}' -> {} {}: {} {}", request.getRemoteAddr(), request.getMethod(), request.getRequestURI(),
+                    status.value(), throwable.toString());
+        }
+        return Rest.error(throwable.getMessage(), status);
+    }
 
+    private HttpStatus resolve(Throwable throwable) {
+        for (var resolver : resolvers) {
+            var status = resolver.resolve(throwable);
+            if (status != null) return status;
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR;
     }
 }
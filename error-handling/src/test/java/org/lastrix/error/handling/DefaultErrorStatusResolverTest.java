@@ -0,0 +1,52 @@
+package org.lastrix.error.handling;
+
+import org.junit.jupiter.api.Test;
+import org.lastrix.rest.BadRequestException;
+import org.lastrix.rest.ConflictException;
+import org.lastrix.rest.ForbiddenException;
+import org.lastrix.rest.NotFoundException;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
+import org.springframework.web.HttpRequestMethodNotSupportedException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DefaultErrorStatusResolverTest {
+    private final DefaultErrorStatusResolver resolver = new DefaultErrorStatusResolver();
+
+    @Test
+    public void testRestExceptions() {
+        assertEquals(HttpStatus.NOT_FOUND, resolver.resolve(new NotFoundException("missing")));
+        assertEquals(HttpStatus.BAD_REQUEST, resolver.resolve(new BadRequestException("bad")));
+        assertEquals(HttpStatus.CONFLICT, resolver.resolve(new ConflictException("conflict")));
+        assertEquals(HttpStatus.FORBIDDEN, resolver.resolve(new ForbiddenException("forbidden")));
+        assertEquals(HttpStatus.GONE, resolver.resolve(new ResponseStatusException(HttpStatus.GONE)));
+        assertEquals(HttpStatus.PAYMENT_REQUIRED, resolver.resolve(new Annotated()));
+    }
+
+    @Test
+    public void testRequestErrors() {
+        assertEquals(HttpStatus.BAD_REQUEST, resolver.resolve(new MissingServletRequestParameterException("id", "long")));
+        assertEquals(HttpStatus.BAD_REQUEST, resolver.resolve(new TypeMismatchException("x", Long.class)));
+        assertEquals(HttpStatus.METHOD_NOT_ALLOWED, resolver.resolve(new HttpRequestMethodNotSupportedException("PATCH")));
+        assertEquals(HttpStatus.NOT_ACCEPTABLE, resolver.resolve(new HttpMediaTypeNotAcceptableException("xml")));
+        assertEquals(HttpStatus.UNSUPPORTED_MEDIA_TYPE, resolver.resolve(new HttpMediaTypeNotSupportedException("xml")));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, resolver.resolve(new AsyncRequestTimeoutException()));
+    }
+
+    @Test
+    public void testServerErrors() {
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, resolver.resolve(new IllegalStateException("failed")));
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, resolver.resolve(new OutOfMemoryError()));
+    }
+
+    @ResponseStatus(HttpStatus.PAYMENT_REQUIRED)
+    private static final class Annotated extends RuntimeException {
+    }
+}
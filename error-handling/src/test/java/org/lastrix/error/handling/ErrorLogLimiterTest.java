@@ -0,0 +1,41 @@
+package org.lastrix.error.handling;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ErrorLogLimiterTest {
+
+    @Test
+    public void testLimit() throws Exception {
+        var limiter = new ErrorLogLimiter(2, Duration.ofMillis(200L), 0L);
+        assertEquals(0L, limiter.tryAcquire(IllegalStateException.class));
+        assertEquals(0L, limiter.tryAcquire(IllegalStateException.class));
+        assertEquals(-1L, limiter.tryAcquire(IllegalStateException.class));
+        assertEquals(-1L, limiter.tryAcquire(IllegalStateException.class));
+        // types are limited separately
+        assertEquals(0L, limiter.tryAcquire(IllegalArgumentException.class));
+
+        Thread.sleep(250L);
+        // the first error of the new window reports the ones skipped before
+        assertEquals(2L, limiter.tryAcquire(IllegalStateException.class));
+        assertEquals(0L, limiter.tryAcquire(IllegalStateException.class));
+        assertEquals(-1L, limiter.tryAcquire(IllegalStateException.class));
+    }
+
+    @Test
+    public void testSampling() {
+        var limiter = new ErrorLogLimiter(1, Duration.ofMinutes(1L), 3L);
+        assertEquals(0L, limiter.tryAcquire(IllegalStateException.class));
+        assertEquals(-1L, limiter.tryAcquire(IllegalStateException.class));
+        assertEquals(-1L, limiter.tryAcquire(IllegalStateException.class));
+        assertEquals(2L, limiter.tryAcquire(IllegalStateException.class));
+        assertEquals(-1L, limiter.tryAcquire(IllegalStateException.class));
+        assertEquals(-1L, limiter.tryAcquire(IllegalStateException.class));
+        assertEquals(2L, limiter.tryAcquire(IllegalStateException.class));
+
+        assertThrows(IllegalArgumentException.class, () -> new ErrorLogLimiter(1, Duration.ofMinutes(1L), -1L));
+    }
+}
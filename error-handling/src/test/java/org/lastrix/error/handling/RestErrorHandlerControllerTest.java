@@ -0,0 +1,59 @@
+package org.lastrix.error.handling;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lastrix.rest.NotFoundException;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class RestErrorHandlerControllerTest {
+    private MockMvc mvc;
+
+    @BeforeEach
+    public void setUp() {
+        ErrorStatusResolver teapot = t -> t instanceof UnsupportedOperationException ? HttpStatus.I_AM_A_TEAPOT : null;
+        mvc = MockMvcBuilders.standaloneSetup(new FailingController())
+                .setControllerAdvice(new RestErrorHandlerController(List.of(teapot), 1, Duration.ofMinutes(1L), 10L))
+                .build();
+    }
+
+    @Test
+    public void testStatus() throws Exception {
+        mvc.perform(get("/fail").param("type", "not-found"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.errors[0]").value("missing"));
+        mvc.perform(get("/fail").param("type", "state"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.errors[0]").value("broken"));
+        mvc.perform(get("/fail")).andExpect(status().isBadRequest());
+        // custom resolvers go before the default one
+        mvc.perform(get("/fail").param("type", "unsupported")).andExpect(status().isIAmATeapot());
+    }
+
+    @RestController
+    private static class FailingController {
+        @GetMapping("/fail")
+        public String fail(@RequestParam String type) {
+            switch (type) {
+                case "not-found":
+                    throw new NotFoundException("missing");
+                case "unsupported":
+                    throw new UnsupportedOperationException("unsupported");
+                default:
+                    throw new IllegalStateException("broken");
+            }
+        }
+    }
+}
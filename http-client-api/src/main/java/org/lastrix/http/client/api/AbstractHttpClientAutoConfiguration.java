@@ -1,57 +1,167 @@
 package org.lastrix.http.client.api;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import feign.*;
+import feign.codec.Decoder;
+import feign.codec.Encoder;
 import feign.codec.ErrorDecoder;
 import feign.form.spring.SpringFormEncoder;
-import feign.jackson.JacksonDecoder;
 import feign.slf4j.Slf4jLogger;
+import org.lastrix.rest.WireFormat;
+import org.lastrix.rest.WireFormatMappers;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
 import org.springframework.cloud.openfeign.support.SpringEncoder;
 import org.springframework.cloud.openfeign.support.SpringMvcContract;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 
-import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSocketFactory;
-import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
-import java.security.cert.X509Certificate;
+import java.net.URI;
 
 @SuppressWarnings("SpringJavaAutowiredMembersInspection")
 public abstract class AbstractHttpClientAutoConfiguration {
 
     @Autowired
-    private ObjectMapper mapper;
+    private WireFormatMappers wireFormatMappers;
 
     @Autowired
     private ObjectFactory<HttpMessageConverters> messageConverters;
 
+    @Autowired
+    private HttpClientEngine httpClientEngine;
+
+    @Autowired
+    private AsyncClients asyncClients;
+
+    @Autowired
+    private ResponseCaches responseCaches;
+
+    @Autowired
+    private RetryBudgets retryBudgets;
+
+    @Autowired
+    private ServiceIsolation serviceIsolation;
+
+    @Value("${mafp.http.client.wire-format:json}")
+    private String wireFormat;
+
     @SuppressWarnings("unused") // API
     protected final <T> T buildClient(String url, Class<T> clientClass, String serviceName) {
-        return buildClient(url, clientClass, new DefaultErrorDecoder(mapper, serviceName));
+        return buildClient(url, clientClass, serviceName, new DefaultErrorDecoder(wireFormatMappers, serviceName));
     }
 
     protected final <T> T buildClient(String url, Class<T> clientClass, ErrorDecoder errorDecoder) {
-        return feignBuilder()
+        return buildClient(url, clientClass, getServiceId(url), errorDecoder);
+    }
+
+    /**
+     * @param target name of the called service, clients of a target share its retry budget,
+     *               circuit breaker and bulkhead
+     */
+    protected final <T> T buildClient(String url, Class<T> clientClass, String target, ErrorDecoder errorDecoder) {
+        var builder = feignBuilder()
                 .requestInterceptor(jwtAuthInterceptor())
-                .errorDecoder(errorDecoder)
+                .errorDecoder(new RetryableStatusErrorDecoder(errorDecoder))
                 .logger(new Slf4jLogger(clientClass))
-                .target(clientClass, url);
+                .addCapability(retryBudgets.get(target))
+                .addCapability(serviceIsolation.bulkhead(target))
+                .addCapability(serviceIsolation.circuitBreaker(target));
+        if (isResponseCacheEnabled(clientClass)) builder.addCapability(responseCaches.create(clientClass));
+        return builder.target(clientClass, url);
+    }
+
+    /**
+     * Client running calls of the blocking one on a shared executor.
+     *
+     * @param asyncClass interface with methods of {@code clientClass} returning {@link java.util.concurrent.CompletableFuture}
+     */
+    @SuppressWarnings("unused") // API
+    protected final <A, T> A buildAsyncClient(String url, Class<T> clientClass, Class<A> asyncClass, String serviceName) {
+        var client = buildClient(url, clientClass, serviceName);
+        return asyncClients.create(asyncClass, clientClass, client, serviceName, getMaxInFlight(serviceName));
     }
 
     protected Feign.Builder feignBuilder() {
-        return Feign.builder()
-                .client(new Client.Default(sslSocketFactory(), null))
-                .encoder(new SpringFormEncoder(new SpringEncoder(messageConverters)))
-                .decoder(new JacksonDecoder(mapper))
+        var format = getWireFormat();
+        var builder = Feign.builder()
+                .client(getClientEngine().client(sslSocketFactory(), trustManager()))
+                .encoder(encoder(format))
+                .decoder(decoder())
                 .retryer(getRetryer())
                 .contract(new SpringMvcContract())
                 .logLevel(getLogLevel());
+        if (format.isBinary()) builder.requestInterceptor(acceptInterceptor(format));
+        return builder;
     }
 
+    /**
+     * Format of request bodies and preferred format of responses, JSON is accepted as well.
+     */
+    protected WireFormat getWireFormat() {
+        return WireFormat.of(wireFormat);
+    }
+
+    private Encoder encoder(WireFormat format) {
+        var encoder = new SpringFormEncoder(new SpringEncoder(messageConverters));
+        return format.isBinary() ? new WireFormatEncoder(encoder, wireFormatMappers.get(format), format) : encoder;
+    }
+
+    private Decoder decoder() {
+        return new WireFormatDecoder(wireFormatMappers);
+    }
+
+    // methods declaring 'produces' keep their accept header
+    private static RequestInterceptor acceptInterceptor(WireFormat format) {
+        var accept = format.getMediaType() + ", " + MediaType.APPLICATION_JSON + ";q=0.9";
+        return template -> {
+            var values = template.headers().get(HttpHeaders.ACCEPT);
+            if (values == null || values.isEmpty()) template.header(HttpHeaders.ACCEPT, accept);
+        };
+    }
+
+    /**
+     * Engine selected by 'mafp.http.client.engine' by default, it is shared with other client configurations.
+     */
+    protected HttpClientEngine getClientEngine() {
+        return httpClientEngine;
+    }
+
+    /**
+     * Limit of concurrent async calls to the service, 'mafp.http.client.async.max-in-flight' by default.
+     */
+    protected int getMaxInFlight(String serviceName) {
+        return asyncClients.getDefaultMaxInFlight();
+    }
+
+    /**
+     * Cache GET responses of the client, see {@link ResponseCache}. Enabled for clients listed in
+     * 'mafp.http.client.cache.clients' by default.
+     */
+    protected boolean isResponseCacheEnabled(Class<?> clientClass) {
+        return responseCaches.isEnabled(clientClass);
+    }
+
+    /**
+     * {@link BudgetRetryer} configured by 'mafp.http.client.retry.*' by default.
+     */
     protected Retryer getRetryer() {
-        return new Retryer.Default();
+        return retryBudgets.retryer();
+    }
+
+    /**
+     * Name of the service called by a client built without one, the host of its url by default,
+     * which is the service id for urls resolved by discovery.
+     */
+    protected String getServiceId(String url) {
+        try {
+            var host = URI.create(url).getHost();
+            return host == null ? url : host;
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
     }
 
     protected Logger.Level getLogLevel() {
@@ -60,26 +170,20 @@ public abstract class AbstractHttpClientAutoConfiguration {
 
     protected abstract RequestInterceptor jwtAuthInterceptor();
 
+    /**
+     * TLS setup of clients, trusting any server certificate by default. Return the same instance on each call,
+     * so clients share connections and TLS sessions. Override {@link #trustManager()} along with it for
+     * engines which need one, e.g. OkHttp.
+     */
     protected SSLSocketFactory sslSocketFactory() {
-        try {
-            SSLContext ctx = SSLContext.getInstance("TLS");
-            ctx.init(null, new TrustManager[]{new NonValidatingTrustManager()}, null);
-            return ctx.getSocketFactory();
-        } catch (Exception e) {
-            throw new IllegalStateException("Error creating SSL Socket Factory!", e);
-        }
+        return TrustAllSsl.socketFactory();
     }
 
-    private static class NonValidatingTrustManager implements X509TrustManager {
-        public X509Certificate[] getAcceptedIssuers() {
-            return new X509Certificate[0];
-        }
-
-        public void checkClientTrusted(X509Certificate[] certs, String authType) {
-        }
-
-        public void checkServerTrusted(X509Certificate[] certs, String authType) {
-        }
+    /**
+     * Trust manager of {@link #sslSocketFactory()}, null if it was overridden alone.
+     */
+    protected X509TrustManager trustManager() {
+        return sslSocketFactory() == TrustAllSsl.socketFactory() ? TrustAllSsl.TRUST_MANAGER : null;
     }
 
 }
@@ -1,14 +1,23 @@
 package org.lastrix.http.client.api;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.lastrix.rest.Rest;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 @Slf4j
-public abstract class AbstractRestService {
+public abstract class AbstractRestService implements MeterBinder {
+    private final List<BatchLoader<?, ?>> batchLoaders = new CopyOnWriteArrayList<>();
+    private volatile MeterRegistry registry;
+
     protected final <T> T singleResult(Supplier<Rest<T>> restSupplier) {
         var list = allResults(restSupplier);
         if (list.size() != 1) {
@@ -18,7 +27,43 @@ public abstract class AbstractRestService {
     }
 
     protected final <T> List<T> allResults(Supplier<Rest<T>> restSupplier) {
-        var r = restSupplier.get();
+        return unwrap(restSupplier.get());
+    }
+
+    protected final <T> CompletableFuture<T> singleResultAsync(Supplier<CompletableFuture<Rest<T>>> restSupplier) {
+        return allResultsAsync(restSupplier).thenApply(list -> {
+            if (list.size() != 1) {
+                throw new IllegalStateException("Single result expected");
+            }
+            return list.get(0);
+        });
+    }
+
+    protected final <T> CompletableFuture<List<T>> allResultsAsync(Supplier<CompletableFuture<Rest<T>>> restSupplier) {
+        return restSupplier.get().thenApply(this::unwrap);
+    }
+
+    /**
+     * Loader coalescing lookups by key into calls of a multi key method, e.g.
+     * {@code batchLoader("user", ids -> client.getByIds(ids), UserDto::getId, 100, Duration.ofMillis(5))}.
+     * Errors returned by the call fail all lookups of the batch.
+     */
+    protected final <K, V> BatchLoader<K, V> batchLoader(String name, Function<List<K>, Rest<V>> batchCall,
+                                                         Function<V, K> keyOf, int maxBatchSize, Duration window) {
+        var loader = new BatchLoader<K, V>(name, keys -> unwrap(batchCall.apply(keys)), keyOf, maxBatchSize, window);
+        batchLoaders.add(loader);
+        var r = registry;
+        if (r != null) loader.bindTo(r);
+        return loader;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        batchLoaders.forEach(l -> l.bindTo(registry));
+    }
+
+    private <T> List<T> unwrap(Rest<T> r) {
         if (!r.isSuccess()) {
             handleErrors(r);
         }
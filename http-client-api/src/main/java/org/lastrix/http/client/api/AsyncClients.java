@@ -0,0 +1,179 @@
+package org.lastrix.http.client.api;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.lastrix.rest.Deadline;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs blocking Feign clients on a bounded executor, exposing them through interfaces returning {@link CompletableFuture}.
+ * Calls in flight are limited per service, so a slow one can not take all threads: once the limit is reached
+ * futures fail with {@link RejectedExecutionException} right away, as they do when the executor queue is full.
+ * Request attributes and the {@link Deadline} of the caller are available to interceptors, e.g. to pass the user token along.
+ */
+public final class AsyncClients implements MeterBinder, AutoCloseable {
+    private final ThreadPoolExecutor executor;
+    private final int defaultMaxInFlight;
+    private final Map<String, Limiter> limiters = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+
+    public AsyncClients(int threads, int queueSize, int defaultMaxInFlight) {
+        if (defaultMaxInFlight <= 0) throw new IllegalArgumentException("Max in-flight calls must be positive: " + defaultMaxInFlight);
+        this.defaultMaxInFlight = defaultMaxInFlight;
+        var counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueSize), r -> {
+            var thread = new Thread(r, "http-client-async-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    public int getDefaultMaxInFlight() {
+        return defaultMaxInFlight;
+    }
+
+    /**
+     * @param asyncClass  interface with methods of the client interface returning {@link CompletableFuture} of their result
+     * @param maxInFlight limit of concurrent calls to the service, shared by its clients; the first client sets it
+     */
+    public <A, T> A create(Class<A> asyncClass, Class<T> clientClass, T client, String serviceName, int maxInFlight) {
+        var methods = new HashMap<Method, Method>();
+        var defaults = new HashMap<Method, MethodHandle>();
+        for (var method : asyncClass.getMethods()) {
+            if (method.getDeclaringClass() == Object.class) continue;
+            if (method.isDefault()) {
+                defaults.put(method, defaultMethod(method));
+                continue;
+            }
+            if (method.getReturnType() != CompletableFuture.class)
+                throw new IllegalArgumentException("Method must return CompletableFuture: " + method);
+            try {
+                methods.put(method, clientClass.getMethod(method.getName(), method.getParameterTypes()));
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException("No matching method in " + clientClass.getName() + " for " + method, e);
+            }
+        }
+        var limiter = limiters.computeIfAbsent(serviceName, name -> newLimiter(name, maxInFlight));
+        var proxy = Proxy.newProxyInstance(asyncClass.getClassLoader(), new Class<?>[]{asyncClass}, (p, method, args) -> {
+            var target = methods.get(method);
+            if (target != null) return submit(limiter, client, target, args);
+            var defaultMethod = defaults.get(method);
+            if (defaultMethod != null) return defaultMethod.bindTo(p).invokeWithArguments(args == null ? new Object[0] : args);
+            switch (method.getName()) {
+                case "equals":
+                    return p == args[0];
+                case "hashCode":
+                    return System.identityHashCode(p);
+                case "toString":
+                    return "Async" + client;
+                default:
+                    throw new UnsupportedOperationException(method.toString());
+            }
+        });
+        return asyncClass.cast(proxy);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new ExecutorServiceMetrics(executor, "http-client-async", Tags.empty()).bindTo(registry);
+        this.registry = registry;
+        limiters.values().forEach(l -> l.bindTo(registry));
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    // default methods run on the caller thread, they usually combine calls of other methods
+    private static MethodHandle defaultMethod(Method method) {
+        var declaringClass = method.getDeclaringClass();
+        try {
+            return MethodHandles.privateLookupIn(declaringClass, MethodHandles.lookup()).unreflectSpecial(method, declaringClass);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Unable to access default method " + method, e);
+        }
+    }
+
+    private Limiter newLimiter(String serviceName, int maxInFlight) {
+        var limiter = new Limiter(serviceName, maxInFlight);
+        var r = registry;
+        if (r != null) limiter.bindTo(r);
+        return limiter;
+    }
+
+    private CompletableFuture<Object> submit(Limiter limiter, Object client, Method method, Object[] args) {
+        var future = new CompletableFuture<>();
+        if (!limiter.permits.tryAcquire()) {
+            limiter.rejected.increment();
+            future.completeExceptionally(new RejectedExecutionException("Too many in-flight calls to " + limiter.serviceName));
+            return future;
+        }
+        var attributes = RequestContextHolder.getRequestAttributes();
+        var deadline = Deadline.current();
+        try {
+            executor.execute(() -> {
+                Object result = null;
+                Throwable failure = null;
+                RequestContextHolder.setRequestAttributes(attributes);
+                try (var ignored = deadline == null ? null : deadline.enter()) {
+                    result = method.invoke(client, args);
+                } catch (InvocationTargetException e) {
+                    failure = e.getCause();
+                } catch (Throwable e) {
+                    failure = e;
+                } finally {
+                    RequestContextHolder.resetRequestAttributes();
+                    limiter.permits.release();
+                }
+                // dependent stages run here, outside of the limit
+                if (failure == null) future.complete(result);
+                else future.completeExceptionally(failure);
+            });
+        } catch (RejectedExecutionException e) {
+            limiter.permits.release();
+            limiter.rejected.increment();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private static final class Limiter {
+        private final String serviceName;
+        private final int maxInFlight;
+        private final Semaphore permits;
+        private final LongAdder rejected = new LongAdder();
+
+        private Limiter(String serviceName, int maxInFlight) {
+            this.serviceName = serviceName;
+            this.maxInFlight = maxInFlight;
+            this.permits = new Semaphore(maxInFlight);
+        }
+
+        private void bindTo(MeterRegistry registry) {
+            Gauge.builder("mafp.http.client.async.in-flight", this, l -> l.maxInFlight - l.permits.availablePermits())
+                    .tag("service", serviceName)
+                    .register(registry);
+            FunctionCounter.builder("mafp.http.client.async.rejected", rejected, LongAdder::sum)
+                    .tag("service", serviceName)
+                    .description("Calls rejected by the in-flight limit or a full executor queue")
+                    .register(registry);
+        }
+    }
+}
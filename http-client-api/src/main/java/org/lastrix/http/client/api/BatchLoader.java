@@ -0,0 +1,190 @@
+package org.lastrix.http.client.api;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Coalesces single key lookups into multi key calls (the DataLoader pattern).
+ * Keys are collected until {@code maxBatchSize} is reached or {@code window} passes since the first one,
+ * then a single call is made and its results are handed back to callers by key.
+ * Equal keys within a batch share the call result. A key missing in the result fails its future.
+ * <p>
+ * Batch calls run on a separate thread, outside of the caller request scope. Loaders share a bounded dispatcher
+ * of {@value #DISPATCHER_THREADS} threads by default, pass an executor of its own to keep a slow service from
+ * delaying batches of others. A batch the executor rejects fails its lookups with {@link RejectedExecutionException}.
+ */
+public final class BatchLoader<K, V> implements MeterBinder {
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(daemon("batch-loader-timer"));
+    private static final int DISPATCHER_THREADS = 16;
+    private static final int DISPATCHER_QUEUE_SIZE = 1000;
+    private static final ExecutorService DISPATCHER = createDispatcher();
+
+    private final String name;
+    private final Function<List<K>, List<V>> batchCall;
+    private final Function<V, K> keyOf;
+    private final int maxBatchSize;
+    private final Duration window;
+    private final Executor executor;
+    private final Object lock = new Object();
+    private Batch<K, V> current;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private volatile DistributionSummary batchSizes;
+
+    public BatchLoader(String name, Function<List<K>, List<V>> batchCall, Function<V, K> keyOf,
+                       int maxBatchSize, Duration window) {
+        this(name, batchCall, keyOf, maxBatchSize, window, DISPATCHER);
+    }
+
+    public BatchLoader(String name, Function<List<K>, List<V>> batchCall, Function<V, K> keyOf,
+                       int maxBatchSize, Duration window, Executor executor) {
+        if (maxBatchSize <= 0) throw new IllegalArgumentException("Max batch size must be positive: " + maxBatchSize);
+        this.name = name;
+        this.batchCall = batchCall;
+        this.keyOf = keyOf;
+        this.maxBatchSize = maxBatchSize;
+        this.window = window;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<V> load(K key) {
+        Batch<K, V> full = null;
+        CompletableFuture<V> future;
+        synchronized (lock) {
+            if (current == null) {
+                var batch = new Batch<K, V>();
+                current = batch;
+                batch.timeout = TIMER.schedule(() -> submit(batch), window.toNanos(), TimeUnit.NANOSECONDS);
+            }
+            future = current.futures.computeIfAbsent(key, k -> new CompletableFuture<>());
+            if (current.futures.size() >= maxBatchSize) {
+                full = current;
+                current = null;
+            }
+        }
+        if (full != null) {
+            full.timeout.cancel(false);
+            submit(full);
+        }
+        return future;
+    }
+
+    /**
+     * Blocking lookup, throws the batch call failure as is.
+     */
+    public V get(K key) {
+        try {
+            return load(key).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * Lookup of several keys, batched with other callers, results are in order of keys.
+     */
+    public CompletableFuture<List<V>> loadAll(Collection<K> keys) {
+        var futures = new ArrayList<CompletableFuture<V>>(keys.size());
+        for (var key : keys) futures.add(load(key));
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+            var list = new ArrayList<V>(futures.size());
+            for (var future : futures) list.add(future.join());
+            return list;
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        batchSizes = DistributionSummary.builder("mafp.http.client.batch.size")
+                .tag("loader", name)
+                .description("Distinct keys of batch calls")
+                .publishPercentileHistogram()
+                .register(registry);
+        FunctionTimer.builder("mafp.http.client.batch.wait", this,
+                l -> l.batches.sum(), l -> l.waitNanos.sum(), TimeUnit.NANOSECONDS)
+                .tag("loader", name)
+                .description("Time from the first key of a batch to the batch call")
+                .register(registry);
+        FunctionCounter.builder("mafp.http.client.batch.failures", this, l -> l.failures.sum())
+                .tag("loader", name)
+                .register(registry);
+    }
+
+    private void submit(Batch<K, V> batch) {
+        try {
+            executor.execute(() -> dispatch(batch));
+        } catch (RejectedExecutionException e) {
+            synchronized (lock) {
+                if (current == batch) current = null;
+            }
+            if (!batch.dispatched.compareAndSet(false, true)) return;
+            failures.increment();
+            batch.futures.values().forEach(f -> f.completeExceptionally(e));
+        }
+    }
+
+    private void dispatch(Batch<K, V> batch) {
+        synchronized (lock) {
+            if (current == batch) current = null;
+        }
+        if (!batch.dispatched.compareAndSet(false, true)) return;
+        batches.increment();
+        var sizes = batchSizes;
+        if (sizes != null) sizes.record(batch.futures.size());
+        waitNanos.add(System.nanoTime() - batch.created);
+        List<V> results;
+        try {
+            results = batchCall.apply(new ArrayList<>(batch.futures.keySet()));
+        } catch (RuntimeException | Error e) {
+            failures.increment();
+            batch.futures.values().forEach(f -> f.completeExceptionally(e));
+            return;
+        }
+        var byKey = new HashMap<K, V>();
+        if (results != null) {
+            for (var value : results) byKey.put(keyOf.apply(value), value);
+        }
+        batch.futures.forEach((key, future) -> {
+            var value = byKey.get(key);
+            if (value == null) future.completeExceptionally(new IllegalStateException("No result for " + name + " key: " + key));
+            else future.complete(value);
+        });
+    }
+
+    private static ExecutorService createDispatcher() {
+        var executor = new ThreadPoolExecutor(DISPATCHER_THREADS, DISPATCHER_THREADS, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(DISPATCHER_QUEUE_SIZE), daemon("batch-loader"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ThreadFactory daemon(String prefix) {
+        var counter = new AtomicInteger();
+        return r -> {
+            var thread = new Thread(r, prefix + '-' + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Batch<K, V> {
+        private final Map<K, CompletableFuture<V>> futures = new LinkedHashMap<>();
+        private final long created = System.nanoTime();
+        private final AtomicBoolean dispatched = new AtomicBoolean();
+        private ScheduledFuture<?> timeout;
+    }
+}
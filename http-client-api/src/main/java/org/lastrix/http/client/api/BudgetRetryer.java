@@ -0,0 +1,89 @@
+package org.lastrix.http.client.api;
+
+import feign.Request;
+import feign.RetryableException;
+import feign.Retryer;
+import org.lastrix.rest.Deadline;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Retries idempotent calls with decorrelated jitter backoff: each delay is random between the base one and
+ * three times the previous, capped by {@code maxDelay}; a later Retry-After of the server is respected.
+ * Gives up once attempts are exhausted, the server asks to wait longer than {@code maxDelay}, the {@link RetryBudget}
+ * of the target is empty or the current {@link Deadline} would pass while waiting.
+ * <p>
+ * Failures turned retryable by {@link RetryableStatusErrorDecoder} are rethrown as they were decoded.
+ */
+public final class BudgetRetryer implements Retryer {
+    private static final Set<Request.HttpMethod> IDEMPOTENT = EnumSet.of(Request.HttpMethod.GET, Request.HttpMethod.HEAD,
+            Request.HttpMethod.OPTIONS, Request.HttpMethod.PUT, Request.HttpMethod.DELETE, Request.HttpMethod.TRACE);
+
+    private final RetryBudget budget;
+    private final int maxAttempts;
+    private final long baseDelay;
+    private final long maxDelay;
+    private int attempt = 1;
+    private long delay;
+
+    /**
+     * @param budget may be null for unlimited retries, set by {@link RetryBudget} applied to the client
+     */
+    public BudgetRetryer(RetryBudget budget, int maxAttempts, long baseDelayMillis, long maxDelayMillis) {
+        this.budget = budget;
+        this.maxAttempts = maxAttempts;
+        this.baseDelay = baseDelayMillis;
+        this.maxDelay = maxDelayMillis;
+        this.delay = baseDelayMillis;
+    }
+
+    BudgetRetryer withBudget(RetryBudget budget) {
+        return new BudgetRetryer(budget, maxAttempts, baseDelay, maxDelay);
+    }
+
+    @Override
+    public void continueOrPropagate(RetryableException e) {
+        if (e instanceof RetryBudget.DeadlineExceededException) throw e;
+        if (e.method() != null && !IDEMPOTENT.contains(e.method())) throw giveUp(e, counter(b -> b.notIdempotent));
+        if (attempt++ >= maxAttempts) throw giveUp(e, counter(b -> b.attemptsExhausted));
+        delay = Math.min(maxDelay, ThreadLocalRandom.current().nextLong(baseDelay, Math.max(baseDelay, delay * 3) + 1));
+        if (e.retryAfter() != null) {
+            var retryAfter = e.retryAfter().getTime() - System.currentTimeMillis();
+            if (retryAfter > maxDelay) throw giveUp(e, counter(b -> b.retryAfterExceeded));
+            delay = Math.max(delay, retryAfter);
+        }
+        var deadline = Deadline.current();
+        if (deadline != null && deadline.remaining().toMillis() <= delay) {
+            throw giveUp(e, counter(b -> b.deadlineExceeded));
+        }
+        if (budget != null && !budget.tryWithdraw()) throw giveUp(e, budget.budgetExhausted);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw giveUp(e, null);
+        }
+        if (budget != null) budget.retried.increment();
+    }
+
+    @Override
+    public Retryer clone() {
+        return new BudgetRetryer(budget, maxAttempts, baseDelay, maxDelay);
+    }
+
+    private LongAdder counter(Function<RetryBudget, LongAdder> counter) {
+        return budget == null ? null : counter.apply(budget);
+    }
+
+    private static RuntimeException giveUp(RetryableException e, LongAdder counter) {
+        if (counter != null) counter.increment();
+        if (e instanceof RetryableStatusErrorDecoder.RetryableStatusException && e.getCause() instanceof RuntimeException) {
+            return (RuntimeException) e.getCause();
+        }
+        return e;
+    }
+}
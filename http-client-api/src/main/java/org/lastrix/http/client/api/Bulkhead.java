@@ -0,0 +1,78 @@
+package org.lastrix.http.client.api;
+
+import feign.Capability;
+import feign.Client;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.lastrix.rest.WireFormatMappers;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits concurrent calls to a service, so a slow one can not take all threads of the caller.
+ * Calls waiting longer than {@code maxWait} for a permit fail with a 503 {@link org.lastrix.rest.Rest} error.
+ * The permit is held until response headers are received.
+ */
+public final class Bulkhead implements Capability, MeterBinder {
+    private final String service;
+    private final int maxConcurrent;
+    private final long maxWaitNanos;
+    private final Semaphore permits;
+    private final RejectedResponses rejectedResponses;
+    private final LongAdder rejected = new LongAdder();
+
+    public Bulkhead(String service, int maxConcurrent, Duration maxWait, WireFormatMappers mappers) {
+        if (maxConcurrent <= 0) throw new IllegalArgumentException("Bulkhead size must be positive: " + maxConcurrent);
+        this.service = service;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.permits = new Semaphore(maxConcurrent);
+        this.rejectedResponses = new RejectedResponses(mappers);
+    }
+
+    public int getInFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> {
+            if (!acquire()) {
+                rejected.increment();
+                return rejectedResponses.create(request, "bulkhead-full",
+                        "Too many concurrent calls to " + service + ", limit is " + maxConcurrent);
+            }
+            try {
+                return client.execute(request, options);
+            } finally {
+                permits.release();
+            }
+        };
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("mafp.http.client.bulkhead.in-flight", this, Bulkhead::getInFlight)
+                .tag("service", service)
+                .register(registry);
+        FunctionCounter.builder("mafp.http.client.isolation.rejected", rejected, LongAdder::sum)
+                .tags("service", service, "reason", "bulkhead-full")
+                .register(registry);
+    }
+
+    private boolean acquire() throws InterruptedIOException {
+        if (maxWaitNanos <= 0L) return permits.tryAcquire();
+        try {
+            return permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a call permit of " + service);
+        }
+    }
+}
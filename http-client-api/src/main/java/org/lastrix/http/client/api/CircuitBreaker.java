@@ -0,0 +1,225 @@
+package org.lastrix.http.client.api;
+
+import feign.Capability;
+import feign.Client;
+import feign.Response;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.lastrix.rest.Deadline;
+import org.lastrix.rest.WireFormatMappers;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stops calling a service failing too often. Failures are IO errors and 5xx responses, counted in a sliding window
+ * of one second buckets; once at least {@code minimumCalls} were made and the failure rate reaches the threshold
+ * the circuit opens and calls fail right away with a 503 {@link org.lastrix.rest.Rest} error.
+ * After {@code openDuration} up to {@code halfOpenCalls} trial calls are let through: if all succeed
+ * the circuit closes, any failure opens it again.
+ * <p>
+ * Calls which were not made by the service - rejected by an inner isolation capability, or failed because
+ * the caller's {@link Deadline} expired - count neither as success nor as failure, a trial permit taken
+ * for them is given back.
+ * <p>
+ * Lock free, window counts are approximate under contention when a bucket is recycled.
+ */
+@Slf4j
+public final class CircuitBreaker implements Capability, MeterBinder {
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private static final long BUCKET_NANOS = 1_000_000_000L;
+
+    private final String service;
+    private final int failureRatePercent;
+    private final int minimumCalls;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final long origin = System.nanoTime();
+    private final Bucket[] buckets;
+    private final RejectedResponses rejectedResponses;
+    private final AtomicReference<Status> status = new AtomicReference<>(new Status(State.CLOSED, 0L));
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+    private final AtomicInteger halfOpenSuccesses = new AtomicInteger();
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder halfOpened = new LongAdder();
+    private final LongAdder closed = new LongAdder();
+
+    public CircuitBreaker(String service, int failureRatePercent, int minimumCalls, Duration window,
+                          Duration openDuration, int halfOpenCalls, WireFormatMappers mappers) {
+        this.service = service;
+        this.failureRatePercent = failureRatePercent;
+        this.minimumCalls = minimumCalls;
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.buckets = new Bucket[(int) Math.max(1L, window.toSeconds())];
+        for (int i = 0; i < buckets.length; i++) buckets[i] = new Bucket();
+        this.rejectedResponses = new RejectedResponses(mappers);
+    }
+
+    public State getState() {
+        return status.get().state;
+    }
+
+    /**
+     * @return false if the call must not be made
+     */
+    public boolean tryAcquire() {
+        var current = status.get();
+        switch (current.state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - current.since < openNanos) return false;
+                var halfOpen = new Status(State.HALF_OPEN, System.nanoTime());
+                if (status.compareAndSet(current, halfOpen)) {
+                    halfOpenSuccesses.set(0);
+                    halfOpenPermits.set(halfOpenCalls);
+                    halfOpened.increment();
+                    log.info("Circuit breaker of {} is half open, trying {} calls", service, halfOpenCalls);
+                }
+                return tryTakeHalfOpenPermit();
+            default:
+                return tryTakeHalfOpenPermit();
+        }
+    }
+
+    public void onSuccess() {
+        record(false);
+        var current = status.get();
+        if (current.state == State.HALF_OPEN && halfOpenSuccesses.incrementAndGet() >= halfOpenCalls
+                && status.compareAndSet(current, new Status(State.CLOSED, System.nanoTime()))) {
+            for (var bucket : buckets) bucket.reset(-1L);
+            closed.increment();
+            log.info("Circuit breaker of {} is closed", service);
+        }
+    }
+
+    public void onFailure() {
+        record(true);
+        var current = status.get();
+        if (current.state == State.HALF_OPEN || current.state == State.CLOSED && isFailureRateExceeded()) {
+            if (status.compareAndSet(current, new Status(State.OPEN, System.nanoTime()))) {
+                opened.increment();
+                log.warn("Circuit breaker of {} is open for {} ms", service, openNanos / 1_000_000L);
+            }
+        }
+    }
+
+    /**
+     * Gives back the trial permit of a call which tells nothing about the service.
+     */
+    public void onIgnored() {
+        var current = status.get();
+        if (current.state == State.HALF_OPEN) halfOpenPermits.incrementAndGet();
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> {
+            if (!tryAcquire()) {
+                rejected.increment();
+                return rejectedResponses.create(request, "circuit-open", "Circuit breaker is open for " + service);
+            }
+            Response response;
+            try {
+                response = client.execute(request, options);
+            } catch (IOException | RuntimeException e) {
+                if (isDeadlineExpired()) onIgnored();
+                else onFailure();
+                throw e;
+            }
+            if (RejectedResponses.isRejected(response)) onIgnored();
+            else if (response.status() >= 500) onFailure();
+            else onSuccess();
+            return response;
+        };
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("mafp.http.client.circuit.state", this, b -> b.getState().ordinal())
+                .tag("service", service)
+                .description("0 - closed, 1 - open, 2 - half open")
+                .register(registry);
+        transitions(registry, "open", opened);
+        transitions(registry, "half-open", halfOpened);
+        transitions(registry, "closed", closed);
+        FunctionCounter.builder("mafp.http.client.isolation.rejected", rejected, LongAdder::sum)
+                .tags("service", service, "reason", "circuit-open")
+                .register(registry);
+    }
+
+    private void transitions(MeterRegistry registry, String to, LongAdder adder) {
+        FunctionCounter.builder("mafp.http.client.circuit.transitions", adder, LongAdder::sum)
+                .tags("service", service, "to", to)
+                .register(registry);
+    }
+
+    private static boolean isDeadlineExpired() {
+        var deadline = Deadline.current();
+        return deadline != null && deadline.isExpired();
+    }
+
+    private boolean tryTakeHalfOpenPermit() {
+        while (true) {
+            var permits = halfOpenPermits.get();
+            if (permits <= 0) return false;
+            if (halfOpenPermits.compareAndSet(permits, permits - 1)) return true;
+        }
+    }
+
+    private void record(boolean failure) {
+        var epoch = (System.nanoTime() - origin) / BUCKET_NANOS;
+        var bucket = buckets[(int) (epoch % buckets.length)];
+        var bucketEpoch = bucket.epoch.get();
+        if (bucketEpoch != epoch && bucket.epoch.compareAndSet(bucketEpoch, epoch)) bucket.reset(epoch);
+        bucket.calls.increment();
+        if (failure) bucket.failures.increment();
+    }
+
+    private boolean isFailureRateExceeded() {
+        var oldest = (System.nanoTime() - origin) / BUCKET_NANOS - buckets.length;
+        long calls = 0L;
+        long failures = 0L;
+        for (var bucket : buckets) {
+            if (bucket.epoch.get() <= oldest) continue;
+            calls += bucket.calls.sum();
+            failures += bucket.failures.sum();
+        }
+        return calls >= minimumCalls && failures * 100L >= calls * failureRatePercent;
+    }
+
+    private static final class Status {
+        private final State state;
+        private final long since;
+
+        private Status(State state, long since) {
+            this.state = state;
+            this.since = since;
+        }
+    }
+
+    private static final class Bucket {
+        private final AtomicLong epoch = new AtomicLong(-1L);
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+
+        private void reset(long epoch) {
+            calls.reset();
+            failures.reset();
+            this.epoch.set(epoch);
+        }
+    }
+}
@@ -5,49 +5,52 @@ import feign.Response;
 import feign.codec.ErrorDecoder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.IOUtils;
-import org.lastrix.rest.Rest;
+import org.lastrix.rest.WireFormatMappers;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
-import java.util.List;
 
+/**
+ * Fails with the first error of the {@link org.lastrix.rest.Rest} answer, read without buffering the body,
+ * see {@link ErrorBodyReader}.
+ */
 @Slf4j
 @RequiredArgsConstructor
 public final class DefaultErrorDecoder implements ErrorDecoder {
-    private final ObjectMapper mapper;
+    private final WireFormatMappers mappers;
     private final String serviceName;
 
-    @SuppressWarnings("unchecked")
+    public DefaultErrorDecoder(ObjectMapper mapper, String serviceName) {
+        this(new WireFormatMappers(mapper), serviceName);
+    }
+
     @Override
     public Exception decode(String methodKey, Response response) {
         if (response.body() == null) {
-            return buildDefaultException(methodKey, response);
+            return buildDefaultException(methodKey, response, null);
+        }
+        var contentType = WireFormatDecoder.contentType(response);
+        if (!ErrorBodyReader.isStructured(contentType)) {
+            return buildDefaultException(methodKey, response, ErrorBodyReader.snippet(response.body()));
         }
         try (InputStream is = response.body().asInputStream()) {
-            var text = IOUtils.toString(is, StandardCharsets.UTF_8);
-            var rest = mapper.readValue(text, Rest.class);
-            if (rest.isSuccess()) {
-                throw new IllegalStateException();
+            var errors = ErrorBodyReader.errors(mappers.forContentType(contentType), is);
+            if (errors == null) {
+                return buildDefaultException(methodKey, response, null);
             }
-            if (rest.getErrors() == null || rest.getErrors().isEmpty()) {
-                return buildDefaultException(methodKey, response);
-            }
-            rest.getErrors().forEach(e -> log.error("Got error from remote: {}\r\n{}", methodKey, e));
-
-            List<String> errors = rest.getErrors();
+            errors.forEach(e -> log.error("Got error from remote: {}\r\n{}", methodKey, e));
             return new IllegalStateException(errors.get(0));
         } catch (IOException e) {
-            return buildDefaultException(methodKey, response);
+            return buildDefaultException(methodKey, response, null);
         }
     }
 
-    private Exception buildDefaultException(String methodKey, Response response) {
+    private Exception buildDefaultException(String methodKey, Response response, String body) {
         return new IllegalStateException("Failed to contact: " + serviceName + System.lineSeparator()
                 + "Method: " + methodKey + System.lineSeparator()
                 + "Status: " + response.status() + System.lineSeparator()
-                + "Path: " + response.request().url());
+                + "Path: " + response.request().url()
+                + (body == null ? "" : System.lineSeparator() + "Body: " + body));
     }
 
 }
@@ -0,0 +1,34 @@
+package org.lastrix.http.client.api;
+
+import feign.Client;
+
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.X509TrustManager;
+
+/**
+ * {@link java.net.HttpURLConnection} based engine. Keep-alive is global for the JVM and limited
+ * by the {@code http.maxConnections} system property (5 idle connections per host by default).
+ */
+public final class DefaultHttpClientEngine implements HttpClientEngine {
+    private final SSLSocketFactory sslSocketFactory;
+    private final Client client;
+
+    public DefaultHttpClientEngine() {
+        this(TrustAllSsl.socketFactory());
+    }
+
+    public DefaultHttpClientEngine(SSLSocketFactory sslSocketFactory) {
+        this.sslSocketFactory = sslSocketFactory;
+        this.client = new Client.Default(sslSocketFactory, null);
+    }
+
+    @Override
+    public Client client() {
+        return client;
+    }
+
+    @Override
+    public Client client(SSLSocketFactory sslSocketFactory, X509TrustManager trustManager) {
+        return sslSocketFactory == this.sslSocketFactory ? client : new Client.Default(sslSocketFactory, null);
+    }
+}
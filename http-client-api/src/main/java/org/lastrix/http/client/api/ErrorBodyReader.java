@@ -0,0 +1,97 @@
+package org.lastrix.http.client.api;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.Response;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.lastrix.rest.WireFormat;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads error responses without buffering them: at most {@link #MAX_BYTES} are parsed and
+ * at most {@link #MAX_SNIPPET} are kept as text, the rest of the body is never read.
+ */
+final class ErrorBodyReader {
+    static final int MAX_BYTES = 64 * 1024;
+    static final int MAX_SNIPPET = 2 * 1024;
+    private static final int MAX_ERRORS = 16;
+
+    private ErrorBodyReader() {
+    }
+
+    /**
+     * @return true if the body may be a {@link org.lastrix.rest.Rest}, e.g. it is not an html page of a proxy
+     */
+    static boolean isStructured(String contentType) {
+        if (contentType == null || contentType.isEmpty()) return true;
+        if (WireFormat.fromContentType(contentType).isBinary()) return true;
+        try {
+            var subtype = MediaType.parseMediaType(contentType).getSubtype();
+            return "json".equals(subtype) || subtype.endsWith("+json");
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Streams errors of a {@link org.lastrix.rest.Rest} body, skipping its data.
+     *
+     * @return null if the body is not a failed {@link org.lastrix.rest.Rest} or has no errors
+     * @throws IllegalStateException if the body is a successful {@link org.lastrix.rest.Rest}
+     */
+    static List<String> errors(ObjectMapper mapper, InputStream is) throws IOException {
+        List<String> errors = null;
+        Boolean success = null;
+        try (JsonParser parser = mapper.getFactory().createParser(new BoundedInputStream(is, MAX_BYTES))) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) return null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                var name = parser.getCurrentName();
+                var token = parser.nextToken();
+                if ("success".equals(name) && token.isBoolean()) {
+                    success = token == JsonToken.VALUE_TRUE;
+                } else if ("errors".equals(name) && token == JsonToken.START_ARRAY) {
+                    errors = readErrors(parser);
+                } else {
+                    parser.skipChildren();
+                }
+                if (success != null && errors != null) break;
+            }
+        } catch (IOException e) {
+            // truncated by the limit, use what was read
+            if (errors == null) throw e;
+        }
+        if (Boolean.TRUE.equals(success)) throw new IllegalStateException("Got successful response as an error");
+        return errors == null || errors.isEmpty() ? null : errors;
+    }
+
+    static String snippet(Response.Body body) {
+        if (body == null) return "[no body]";
+        try (InputStream is = body.asInputStream()) {
+            var buffer = new byte[MAX_SNIPPET];
+            var length = IOUtils.read(is, buffer);
+            var text = new String(buffer, 0, length, StandardCharsets.UTF_8);
+            return length < MAX_SNIPPET || is.read() == -1 ? text : text + "... [truncated]";
+        } catch (IOException e) {
+            return "[" + e.getMessage() + "]";
+        }
+    }
+
+    private static List<String> readErrors(JsonParser parser) throws IOException {
+        var errors = new ArrayList<String>(1);
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token == JsonToken.VALUE_STRING && errors.size() < MAX_ERRORS) errors.add(parser.getText());
+            else parser.skipChildren();
+        }
+        return errors;
+    }
+}
@@ -0,0 +1,69 @@
+package org.lastrix.http.client.api;
+
+import org.lastrix.rest.WireFormatMappers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+
+import java.time.Duration;
+
+public class HttpClientAutoConfiguration {
+
+    @Bean
+    public HttpClientEngine httpClientEngine(
+            @Value("${mafp.http.client.engine:default}") String engine,
+            @Value("${mafp.http.client.pool.max-idle:32}") int maxIdle,
+            @Value("${mafp.http.client.pool.keep-alive:300}") long keepAlive,
+            @Value("${mafp.http.client.pool.max-per-host:64}") int maxPerHost,
+            @Value("${mafp.http.client.pool.acquire-timeout:5000}") long acquireTimeout,
+            @Value("${mafp.http.client.http2:true}") boolean http2) {
+        switch (engine.trim().toLowerCase()) {
+            case "default":
+                return new DefaultHttpClientEngine();
+            case "okhttp":
+                return new OkHttpClientEngine(maxIdle, Duration.ofSeconds(keepAlive), maxPerHost,
+                        Duration.ofMillis(acquireTimeout), http2);
+            default:
+                throw new IllegalArgumentException("Unknown http client engine: " + engine);
+        }
+    }
+
+    @Bean
+    public AsyncClients asyncClients(
+            @Value("${mafp.http.client.async.threads:32}") int threads,
+            @Value("${mafp.http.client.async.queue-size:1000}") int queueSize,
+            @Value("${mafp.http.client.async.max-in-flight:16}") int maxInFlight) {
+        return new AsyncClients(threads, queueSize, maxInFlight);
+    }
+
+    @Bean
+    public ResponseCaches responseCaches(
+            @Value("${mafp.http.client.cache.clients:}") String[] clients,
+            @Value("${mafp.http.client.cache.size:1000}") long size,
+            @Value("${mafp.http.client.cache.ttl:600}") long ttl) {
+        return new ResponseCaches(clients, size, Duration.ofSeconds(ttl));
+    }
+
+    @Bean
+    public RetryBudgets retryBudgets(
+            @Value("${mafp.http.client.retry.budget.ratio:0.1}") double ratio,
+            @Value("${mafp.http.client.retry.budget.max-tokens:10}") int maxTokens,
+            @Value("${mafp.http.client.retry.max-attempts:3}") int maxAttempts,
+            @Value("${mafp.http.client.retry.base-delay:50}") long baseDelay,
+            @Value("${mafp.http.client.retry.max-delay:1000}") long maxDelay) {
+        return new RetryBudgets(ratio, maxTokens, maxAttempts, baseDelay, maxDelay);
+    }
+
+    @Bean
+    public ServiceIsolation serviceIsolation(
+            WireFormatMappers wireFormatMappers,
+            @Value("${mafp.http.client.circuit-breaker.failure-rate:50}") int failureRate,
+            @Value("${mafp.http.client.circuit-breaker.minimum-calls:20}") int minimumCalls,
+            @Value("${mafp.http.client.circuit-breaker.window:10}") long window,
+            @Value("${mafp.http.client.circuit-breaker.open-duration:30}") long openDuration,
+            @Value("${mafp.http.client.circuit-breaker.half-open-calls:5}") int halfOpenCalls,
+            @Value("${mafp.http.client.bulkhead.max-concurrent:64}") int maxConcurrent,
+            @Value("${mafp.http.client.bulkhead.max-wait:0}") long maxWait) {
+        return new ServiceIsolation(failureRate, minimumCalls, Duration.ofSeconds(window), Duration.ofSeconds(openDuration),
+                halfOpenCalls, maxConcurrent, Duration.ofMillis(maxWait), wireFormatMappers);
+    }
+}
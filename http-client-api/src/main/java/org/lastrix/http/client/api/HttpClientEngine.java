@@ -0,0 +1,32 @@
+package org.lastrix.http.client.api;
+
+import feign.Client;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.X509TrustManager;
+
+/**
+ * Transport shared by all Feign clients of the application.
+ * Engines keep connections and TLS sessions between clients, so {@link #client()} is cheap and may be called per client.
+ */
+public interface HttpClientEngine extends MeterBinder {
+
+    /**
+     * @return client trusting any server certificate
+     */
+    default Client client() {
+        return client(TrustAllSsl.socketFactory(), TrustAllSsl.TRUST_MANAGER);
+    }
+
+    /**
+     * @param trustManager trust manager of the socket factory, engines which need it fail if it is null
+     * @return client using the given TLS setup, e.g. a custom trust store or a client certificate
+     */
+    Client client(SSLSocketFactory sslSocketFactory, X509TrustManager trustManager);
+
+    @Override
+    default void bindTo(MeterRegistry registry) {
+    }
+}
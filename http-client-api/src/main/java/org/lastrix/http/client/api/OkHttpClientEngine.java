@@ -0,0 +1,174 @@
+package org.lastrix.http.client.api;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import feign.Client;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import okhttp3.*;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.X509TrustManager;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * OkHttp based engine with a single connection pool for all clients.
+ * HTTP/2 is negotiated over TLS where the remote side supports it, so calls to one host share a connection.
+ * Concurrent calls per host are bounded, a call waits for a permit up to {@code acquireTimeout}
+ * and fails with {@link IOException} after it. A permit is held until the response body is closed.
+ * Permits of a host are dropped once no call holds or waits for them.
+ */
+public final class OkHttpClientEngine implements HttpClientEngine, AutoCloseable {
+    private final OkHttpClient okHttpClient;
+    private final Client client;
+    private final Map<SSLSocketFactory, Client> tlsClients = new ConcurrentHashMap<>();
+    private final long acquireTimeoutMillis;
+    // weak values: a semaphore referenced by no call has all its permits, so a new one is the same
+    private final LoadingCache<String, Semaphore> hostPermits;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    public OkHttpClientEngine(int maxIdle, Duration keepAlive, int maxPerHost, Duration acquireTimeout, boolean http2) {
+        if (maxPerHost <= 0) throw new IllegalArgumentException("Max connections per host must be positive: " + maxPerHost);
+        this.acquireTimeoutMillis = acquireTimeout.toMillis();
+        this.hostPermits = Caffeine.newBuilder().weakValues().build(k -> new Semaphore(maxPerHost));
+        this.okHttpClient = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(maxIdle, keepAlive.toMillis(), TimeUnit.MILLISECONDS))
+                .protocols(http2 ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1) : List.of(Protocol.HTTP_1_1))
+                .sslSocketFactory(TrustAllSsl.socketFactory(), TrustAllSsl.TRUST_MANAGER)
+                // feign default options, otherwise a client is derived on every call
+                .connectTimeout(10, TimeUnit.SECONDS)
+                .readTimeout(60, TimeUnit.SECONDS)
+                .addInterceptor(this::limitPerHost)
+                .build();
+        // clients derived for other request options share the pool and the limits
+        this.client = new feign.okhttp.OkHttpClient(okHttpClient);
+    }
+
+    @Override
+    public Client client() {
+        return client;
+    }
+
+    /**
+     * Clients with another TLS setup share the pool and the limits, connections are not shared with
+     * other setups as OkHttp keys them by the socket factory.
+     */
+    @Override
+    public Client client(SSLSocketFactory sslSocketFactory, X509TrustManager trustManager) {
+        if (sslSocketFactory == TrustAllSsl.socketFactory()) return client;
+        if (trustManager == null) {
+            throw new IllegalStateException("OkHttp engine needs the trust manager of a custom SSL socket factory");
+        }
+        return tlsClients.computeIfAbsent(sslSocketFactory, f -> new feign.okhttp.OkHttpClient(
+                okHttpClient.newBuilder().sslSocketFactory(f, trustManager).build()));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        var pool = okHttpClient.connectionPool();
+        Gauge.builder("mafp.http.client.connections", pool, p -> p.connectionCount() - p.idleConnectionCount())
+                .tag("state", "leased")
+                .description("Pooled connections carrying a call")
+                .register(registry);
+        Gauge.builder("mafp.http.client.connections", pool, ConnectionPool::idleConnectionCount)
+                .tag("state", "idle")
+                .register(registry);
+        Gauge.builder("mafp.http.client.pending", pending, AtomicInteger::get)
+                .description("Calls waiting for a per host permit")
+                .register(registry);
+        FunctionCounter.builder("mafp.http.client.rejected", rejected, LongAdder::sum)
+                .description("Calls failed waiting for a per host permit")
+                .register(registry);
+    }
+
+    @Override
+    public void close() {
+        okHttpClient.dispatcher().executorService().shutdown();
+        okHttpClient.connectionPool().evictAll();
+    }
+
+    private Response limitPerHost(Interceptor.Chain chain) throws IOException {
+        var url = chain.request().url();
+        var permits = hostPermits.get(url.host() + ':' + url.port());
+        acquire(permits, url);
+        Response response;
+        try {
+            response = chain.proceed(chain.request());
+        } catch (IOException | RuntimeException | Error e) {
+            permits.release();
+            throw e;
+        }
+        var body = response.body();
+        if (body == null) {
+            permits.release();
+            return response;
+        }
+        return response.newBuilder().body(new PermitResponseBody(body, permits)).build();
+    }
+
+    private void acquire(Semaphore permits, HttpUrl url) throws IOException {
+        if (permits.tryAcquire()) return;
+        pending.incrementAndGet();
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                throw new IOException("Too many concurrent calls to " + url.host() + ':' + url.port());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for connection to " + url.host());
+        } finally {
+            pending.decrementAndGet();
+        }
+    }
+
+    private static final class PermitResponseBody extends ResponseBody {
+        private final ResponseBody delegate;
+        private final BufferedSource source;
+
+        private PermitResponseBody(ResponseBody delegate, Semaphore permits) {
+            this.delegate = delegate;
+            var released = new AtomicBoolean();
+            this.source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        if (released.compareAndSet(false, true)) permits.release();
+                    }
+                }
+            });
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public BufferedSource source() {
+            return source;
+        }
+    }
+}
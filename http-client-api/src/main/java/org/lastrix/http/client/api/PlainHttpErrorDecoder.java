@@ -3,13 +3,10 @@ package org.lastrix.http.client.api;
 import feign.Response;
 import feign.codec.ErrorDecoder;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.io.IOUtils;
-
-import java.io.BufferedInputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 
+/**
+ * Fails with the status and the beginning of the body, see {@link ErrorBodyReader#MAX_SNIPPET}.
+ */
 @RequiredArgsConstructor
 public final class PlainHttpErrorDecoder implements ErrorDecoder {
     private final String serviceName;
@@ -19,17 +16,6 @@ public final class PlainHttpErrorDecoder implements ErrorDecoder {
         return new IllegalStateException("Failed to contact: " + serviceName + System.lineSeparator()
                 + "Method: " + s + System.lineSeparator()
                 + "Status: " + response.status() + System.lineSeparator()
-                + "Body: " + bodyAsString(response.body()));
-    }
-
-    private String bodyAsString(Response.Body body) {
-        if (body == null) {
-            return "[no body]";
-        }
-        try (InputStream is = new BufferedInputStream(body.asInputStream())) {
-            return IOUtils.toString(is, StandardCharsets.UTF_8);
-        } catch (IOException e) {
-            return "[" + e.getMessage() + "]";
-        }
+                + "Body: " + ErrorBodyReader.snippet(response.body()));
     }
 }
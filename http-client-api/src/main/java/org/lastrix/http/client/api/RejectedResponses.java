@@ -0,0 +1,57 @@
+package org.lastrix.http.client.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import feign.Request;
+import feign.Response;
+import org.lastrix.rest.Rest;
+import org.lastrix.rest.WireFormat;
+import org.lastrix.rest.WireFormatMappers;
+import org.springframework.http.HttpHeaders;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 503 responses with a {@link Rest} error made up for calls which were not sent, so they fail as remote errors do.
+ * The error is in the format the request accepts first, written by the mapper of the context.
+ */
+final class RejectedResponses {
+    static final String HEADER = "X-Mafp-Rejected";
+
+    private final WireFormatMappers mappers;
+
+    RejectedResponses(WireFormatMappers mappers) {
+        this.mappers = mappers;
+    }
+
+    Response create(Request request, String reason, String message) {
+        var format = accepted(request);
+        byte[] body;
+        try {
+            body = mappers.get(format).writeValueAsBytes(new Rest<>(false, List.of(message)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        return Response.builder()
+                .status(503)
+                .reason("Service Unavailable")
+                .request(request)
+                .headers(Map.of(HEADER, List.of(reason), HttpHeaders.CONTENT_TYPE, List.of(format.getMediaType().toString())))
+                .body(body)
+                .build();
+    }
+
+    private static WireFormat accepted(Request request) {
+        for (var header : request.headers().entrySet()) {
+            if (!header.getKey().equalsIgnoreCase(HttpHeaders.ACCEPT) || header.getValue() == null) continue;
+            for (var value : header.getValue()) return WireFormat.fromContentType(value.split(",")[0]);
+        }
+        return WireFormat.JSON;
+    }
+
+    static boolean isRejected(Response response) {
+        Collection<String> values = response.headers().get(HEADER);
+        return values != null && !values.isEmpty();
+    }
+}
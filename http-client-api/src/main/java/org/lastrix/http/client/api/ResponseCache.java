@@ -0,0 +1,267 @@
+package org.lastrix.http.client.api;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.springframework.http.HttpHeaders;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of GET response bodies of a single client, keyed by method, resolved url and credentials of the request.
+ * <ul>
+ * <li>responses with {@code no-store} or {@code private} cache control, {@code Vary: *} or bodies larger than
+ * {@link #MAX_BODY} are never stored,</li>
+ * <li>entries are served without a call for {@code max-age} (capped by ttl), {@code no-cache} makes it zero,</li>
+ * <li>stale entries having an ETag are revalidated with {@code If-None-Match}, a 304 answer serves the entry again,</li>
+ * <li>an entry is served only to requests having the same values of headers listed in its {@code Vary}.</li>
+ * </ul>
+ * Served responses carry the stored body and headers and are decoded as responses of the service,
+ * so every caller gets objects of its own.
+ */
+public final class ResponseCache implements Capability, MeterBinder {
+    static final String CACHE_HEADER = "X-Mafp-Cache";
+    static final int MAX_BODY = 1024 * 1024;
+    private static final List<String> CREDENTIALS = List.of(HttpHeaders.AUTHORIZATION, HttpHeaders.COOKIE);
+
+    private final String name;
+    private final Duration ttl;
+    private final Cache<String, Entry> cache;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder revalidated = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ResponseCache(String name, long maxSize, Duration ttl) {
+        this.name = name;
+        this.ttl = ttl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> execute(client, request, options);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("mafp.http.client.cache.requests", hits, LongAdder::sum)
+                .tags("client", name, "result", "hit")
+                .description("GET calls served from the response cache without a call")
+                .register(registry);
+        FunctionCounter.builder("mafp.http.client.cache.requests", revalidated, LongAdder::sum)
+                .tags("client", name, "result", "revalidated")
+                .description("GET calls served from the response cache after a 304 answer")
+                .register(registry);
+        FunctionCounter.builder("mafp.http.client.cache.requests", misses, LongAdder::sum)
+                .tags("client", name, "result", "miss")
+                .register(registry);
+        Gauge.builder("mafp.http.client.cache.size", cache, Cache::estimatedSize)
+                .tag("client", name)
+                .register(registry);
+    }
+
+    private Response execute(Client client, Request request, Request.Options options) throws IOException {
+        if (request.httpMethod() != Request.HttpMethod.GET) return client.execute(request, options);
+        var key = key(request);
+        var entry = cache.getIfPresent(key);
+        if (entry != null && !entry.matches(request)) entry = null;
+        if (entry == null) {
+            misses.increment();
+            return store(key, request, client.execute(request, options));
+        }
+        if (entry.freshUntil - System.nanoTime() > 0L) {
+            hits.increment();
+            return entry.serve(request, "hit");
+        }
+        if (entry.etag == null) {
+            cache.invalidate(key);
+            misses.increment();
+            return store(key, request, client.execute(request, options));
+        }
+        var headers = new LinkedHashMap<>(request.headers());
+        headers.put(HttpHeaders.IF_NONE_MATCH, List.of(entry.etag));
+        var response = client.execute(Request.create(request.httpMethod(), request.url(), headers,
+                request.body(), request.charset(), request.requestTemplate()), options);
+        if (response.status() != 304) {
+            misses.increment();
+            return store(key, request, response);
+        }
+        response.close();
+        var refreshed = entry.refresh(freshUntil(cacheControl(response.headers())));
+        cache.put(key, refreshed);
+        revalidated.increment();
+        return refreshed.serve(request, "revalidated");
+    }
+
+    /**
+     * @return the response, its body is read into the entry if it is stored
+     */
+    private Response store(String key, Request request, Response response) throws IOException {
+        if (response.status() != 200 || response.body() == null) return response;
+        var headers = response.headers();
+        var cacheControl = cacheControl(headers);
+        if (cacheControl.contains("no-store") || cacheControl.contains("private")) return response;
+        var vary = vary(headers);
+        if (vary.contains("*")) return response;
+        var etag = first(headers, HttpHeaders.ETAG);
+        var freshUntil = freshUntil(cacheControl);
+        if (etag == null && freshUntil - System.nanoTime() <= 0L) return response;
+        var length = response.body().length();
+        if (length != null && length > MAX_BODY) return response;
+
+        var is = response.body().asInputStream();
+        var body = IOUtils.toByteArray(new BoundedInputStream(is, MAX_BODY + 1L));
+        if (body.length > MAX_BODY) {
+            return response.toBuilder().body(new SequenceInputStream(new ByteArrayInputStream(body), is), null).build();
+        }
+        is.close();
+        var varyValues = new HashMap<String, Collection<String>>();
+        for (var header : vary) varyValues.put(header, values(request.headers(), header));
+        var entry = new Entry(response.reason(), Map.copyOf(headers), body, etag, freshUntil, varyValues);
+        cache.put(key, entry);
+        return entry.serve(request, "miss");
+    }
+
+    private long freshUntil(Set<String> cacheControl) {
+        var maxAge = 0L;
+        if (!cacheControl.contains("no-cache")) {
+            for (var directive : cacheControl) {
+                if (!directive.startsWith("max-age=")) continue;
+                try {
+                    maxAge = Long.parseLong(directive.substring("max-age=".length()));
+                } catch (NumberFormatException ignored) {
+                    // treated as stale
+                }
+            }
+        }
+        return System.nanoTime() + Math.min(TimeUnit.SECONDS.toNanos(maxAge), ttl.toNanos());
+    }
+
+    private static Set<String> cacheControl(Map<String, Collection<String>> headers) {
+        return directives(headers, HttpHeaders.CACHE_CONTROL);
+    }
+
+    private static Set<String> vary(Map<String, Collection<String>> headers) {
+        return directives(headers, HttpHeaders.VARY);
+    }
+
+    private static Set<String> directives(Map<String, Collection<String>> headers, String name) {
+        var values = values(headers, name);
+        if (values.isEmpty()) return Set.of();
+        var set = new HashSet<String>();
+        for (var value : values) {
+            for (var directive : value.split(",")) {
+                if (!directive.isBlank()) set.add(directive.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        return set;
+    }
+
+    private static String first(Map<String, Collection<String>> headers, String name) {
+        var values = values(headers, name);
+        return values.isEmpty() ? null : values.iterator().next();
+    }
+
+    /**
+     * @return values of the header, names are case insensitive
+     */
+    private static Collection<String> values(Map<String, Collection<String>> headers, String name) {
+        for (var header : headers.entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name)) return header.getValue() == null ? List.of() : header.getValue();
+        }
+        return List.of();
+    }
+
+    /**
+     * Requests of different principals never share entries: the key has a digest of their credentials.
+     */
+    private static String key(Request request) {
+        var template = request.requestTemplate();
+        var metadata = template == null ? null : template.methodMetadata();
+        var key = metadata == null ? request.url() : metadata.configKey() + ' ' + request.url();
+        var credentials = new StringBuilder();
+        for (var header : CREDENTIALS) {
+            for (var value : values(request.headers(), header)) credentials.append(header).append(':').append(value).append('\n');
+        }
+        return credentials.length() == 0 ? key : key + ' ' + digest(credentials.toString());
+    }
+
+    private static String digest(String text) {
+        try {
+            var hash = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Entry {
+        private final String reason;
+        private final Map<String, Collection<String>> headers;
+        private final byte[] body;
+        private final String etag;
+        private final long freshUntil;
+        private final Map<String, Collection<String>> vary;
+
+        private Entry(String reason, Map<String, Collection<String>> headers, byte[] body, String etag, long freshUntil,
+                      Map<String, Collection<String>> vary) {
+            this.reason = reason;
+            this.headers = headers;
+            this.body = body;
+            this.etag = etag;
+            this.freshUntil = freshUntil;
+            this.vary = vary;
+        }
+
+        private boolean matches(Request request) {
+            for (var header : vary.entrySet()) {
+                if (!new ArrayList<>(header.getValue()).equals(new ArrayList<>(values(request.headers(), header.getKey())))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private Entry refresh(long freshUntil) {
+            return new Entry(reason, headers, body, etag, freshUntil, vary);
+        }
+
+        private Response serve(Request request, String result) {
+            var served = new LinkedHashMap<>(headers);
+            served.put(CACHE_HEADER, List.of(result));
+            return Response.builder()
+                    .status(200)
+                    .reason(reason)
+                    .request(request)
+                    .headers(served)
+                    .body(body)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.lastrix.http.client.api;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+/**
+ * Creates {@link ResponseCache}s for clients having them enabled and binds their metrics.
+ */
+public final class ResponseCaches implements MeterBinder {
+    private final Set<String> enabledClients;
+    private final long maxSize;
+    private final Duration ttl;
+    private final List<ResponseCache> caches = new CopyOnWriteArrayList<>();
+    private volatile MeterRegistry registry;
+
+    /**
+     * @param enabledClients simple or full names of client interfaces to cache responses of
+     */
+    public ResponseCaches(String[] enabledClients, long maxSize, Duration ttl) {
+        this.enabledClients = Arrays.stream(enabledClients)
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toSet());
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+    }
+
+    public boolean isEnabled(Class<?> clientClass) {
+        return enabledClients.contains(clientClass.getSimpleName()) || enabledClients.contains(clientClass.getName());
+    }
+
+    public ResponseCache create(Class<?> clientClass) {
+        var cache = new ResponseCache(clientClass.getSimpleName(), maxSize, ttl);
+        caches.add(cache);
+        var r = registry;
+        if (r != null) cache.bindTo(r);
+        return cache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        caches.forEach(c -> c.bindTo(registry));
+    }
+}
@@ -0,0 +1,122 @@
+package org.lastrix.http.client.api;
+
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import feign.RetryableException;
+import feign.Retryer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.lastrix.rest.Deadline;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits retries to a target to a share of its successful calls, so a failing dependency gets at most
+ * {@code ratio} extra load instead of a retry storm. Each 2xx or 3xx response deposits {@code ratio} tokens,
+ * each retry takes one, the balance is capped by {@code maxTokens} which is also the initial one.
+ * <p>
+ * Applied to a client it also passes the current {@link Deadline} along, shortens the read timeout to it
+ * and fails calls with {@link DeadlineExceededException} once it is exceeded.
+ */
+public final class RetryBudget implements Capability, MeterBinder {
+    private static final long TOKEN = 1000L;
+
+    private final String target;
+    private final long deposit;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    final LongAdder retried = new LongAdder();
+    final LongAdder attemptsExhausted = new LongAdder();
+    final LongAdder budgetExhausted = new LongAdder();
+    final LongAdder deadlineExceeded = new LongAdder();
+    final LongAdder retryAfterExceeded = new LongAdder();
+    final LongAdder notIdempotent = new LongAdder();
+
+    public RetryBudget(String target, double ratio, int maxTokens) {
+        if (ratio < 0d) throw new IllegalArgumentException("Retry budget ratio must not be negative: " + ratio);
+        this.target = target;
+        this.deposit = Math.round(ratio * TOKEN);
+        this.maxBalance = maxTokens * TOKEN;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public void deposit() {
+        if (balance.get() < maxBalance) balance.accumulateAndGet(deposit, (current, add) -> Math.min(maxBalance, current + add));
+    }
+
+    public boolean tryWithdraw() {
+        while (true) {
+            var current = balance.get();
+            if (current < TOKEN) return false;
+            if (balance.compareAndSet(current, current - TOKEN)) return true;
+        }
+    }
+
+    @Override
+    public Retryer enrich(Retryer retryer) {
+        return retryer instanceof BudgetRetryer ? ((BudgetRetryer) retryer).withBudget(this) : retryer;
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> {
+            var deadline = Deadline.current();
+            if (deadline != null) {
+                if (deadline.isExpired()) {
+                    deadlineExceeded.increment();
+                    throw new DeadlineExceededException("Deadline exceeded before calling " + target + ": " + request.url(), request);
+                }
+                var remaining = Math.max(1L, deadline.remaining().toMillis());
+                var headers = new LinkedHashMap<>(request.headers());
+                headers.put(Deadline.HEADER, List.of(Long.toString(remaining)));
+                request = Request.create(request.httpMethod(), request.url(), headers,
+                        request.body(), request.charset(), request.requestTemplate());
+                if (remaining < options.readTimeoutMillis()) {
+                    options = new Request.Options(Math.min(remaining, options.connectTimeoutMillis()), TimeUnit.MILLISECONDS,
+                            remaining, TimeUnit.MILLISECONDS, options.isFollowRedirects());
+                }
+            }
+            var response = client.execute(request, options);
+            if (response.status() >= 200 && response.status() < 400) deposit();
+            return response;
+        };
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        counter(registry, "retried", retried);
+        counter(registry, "attempts-exhausted", attemptsExhausted);
+        counter(registry, "budget-exhausted", budgetExhausted);
+        counter(registry, "deadline-exceeded", deadlineExceeded);
+        counter(registry, "retry-after-exceeded", retryAfterExceeded);
+        counter(registry, "not-idempotent", notIdempotent);
+    }
+
+    private void counter(MeterRegistry registry, String result, LongAdder adder) {
+        FunctionCounter.builder("mafp.http.client.retries", adder, LongAdder::sum)
+                .tags("target", target, "result", result)
+                .description("Retryable failures by decision: retried or the reason to give up")
+                .register(registry);
+    }
+
+    /**
+     * Call not sent as the deadline has passed, it is never retried.
+     */
+    public static final class DeadlineExceededException extends RetryableException {
+        DeadlineExceededException(String message, Request request) {
+            super(-1, message, request.httpMethod(), (Date) null, request);
+        }
+    }
+}
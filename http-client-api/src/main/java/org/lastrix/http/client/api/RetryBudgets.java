@@ -0,0 +1,50 @@
+package org.lastrix.http.client.api;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link RetryBudget} per target, shared by all clients calling it.
+ */
+public final class RetryBudgets implements MeterBinder {
+    private final double ratio;
+    private final int maxTokens;
+    private final int maxAttempts;
+    private final long baseDelay;
+    private final long maxDelay;
+    private final Map<String, RetryBudget> budgets = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+
+    public RetryBudgets(double ratio, int maxTokens, int maxAttempts, long baseDelayMillis, long maxDelayMillis) {
+        this.ratio = ratio;
+        this.maxTokens = maxTokens;
+        this.maxAttempts = maxAttempts;
+        this.baseDelay = baseDelayMillis;
+        this.maxDelay = maxDelayMillis;
+    }
+
+    public RetryBudget get(String target) {
+        return budgets.computeIfAbsent(target, t -> {
+            var budget = new RetryBudget(t, ratio, maxTokens);
+            var r = registry;
+            if (r != null) budget.bindTo(r);
+            return budget;
+        });
+    }
+
+    /**
+     * Retryer using the budget of the client it is built into.
+     */
+    public BudgetRetryer retryer() {
+        return new BudgetRetryer(null, maxAttempts, baseDelay, maxDelay);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        budgets.values().forEach(b -> b.bindTo(registry));
+    }
+}
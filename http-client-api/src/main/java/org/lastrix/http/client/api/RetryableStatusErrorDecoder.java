@@ -0,0 +1,68 @@
+package org.lastrix.http.client.api;
+
+import feign.Request;
+import feign.Response;
+import feign.RetryableException;
+import feign.codec.ErrorDecoder;
+import org.springframework.http.HttpHeaders;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.Set;
+
+/**
+ * Makes failures with statuses meaning 'try again later' retryable, keeping the decoded exception as the cause.
+ * Calls rejected by the circuit breaker or the bulkhead are not retried.
+ */
+public final class RetryableStatusErrorDecoder implements ErrorDecoder {
+    public static final Set<Integer> DEFAULT_STATUSES = Set.of(429, 502, 503, 504);
+
+    private final ErrorDecoder delegate;
+    private final Set<Integer> statuses;
+
+    public RetryableStatusErrorDecoder(ErrorDecoder delegate) {
+        this(delegate, DEFAULT_STATUSES);
+    }
+
+    public RetryableStatusErrorDecoder(ErrorDecoder delegate, Set<Integer> statuses) {
+        this.delegate = delegate;
+        this.statuses = statuses;
+    }
+
+    @Override
+    public Exception decode(String methodKey, Response response) {
+        var exception = delegate.decode(methodKey, response);
+        if (exception instanceof RetryableException || !statuses.contains(response.status())
+                || RejectedResponses.isRejected(response)) {
+            return exception;
+        }
+        var request = response.request();
+        return new RetryableStatusException(response.status(), exception.getMessage(), request.httpMethod(),
+                exception, retryAfter(response), request);
+    }
+
+    private static Date retryAfter(Response response) {
+        var values = response.headers().get(HttpHeaders.RETRY_AFTER);
+        if (values == null || values.isEmpty()) return null;
+        var value = values.iterator().next().trim();
+        try {
+            return new Date(System.currentTimeMillis() + Long.parseLong(value) * 1000L);
+        } catch (NumberFormatException ignored) {
+            // not delta seconds
+        }
+        try {
+            return Date.from(ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    static final class RetryableStatusException extends RetryableException {
+        private RetryableStatusException(int status, String message, Request.HttpMethod method, Throwable cause,
+                                         Date retryAfter, Request request) {
+            super(status, message, method, cause, retryAfter, request);
+        }
+    }
+}
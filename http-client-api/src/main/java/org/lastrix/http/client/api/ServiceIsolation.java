@@ -0,0 +1,63 @@
+package org.lastrix.http.client.api;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.lastrix.rest.WireFormatMappers;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link CircuitBreaker} and {@link Bulkhead} per service, shared by all clients calling it.
+ */
+public final class ServiceIsolation implements MeterBinder {
+    private final int failureRatePercent;
+    private final int minimumCalls;
+    private final Duration window;
+    private final Duration openDuration;
+    private final int halfOpenCalls;
+    private final int maxConcurrent;
+    private final Duration maxWait;
+    private final WireFormatMappers mappers;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+
+    public ServiceIsolation(int failureRatePercent, int minimumCalls, Duration window, Duration openDuration,
+                            int halfOpenCalls, int maxConcurrent, Duration maxWait, WireFormatMappers mappers) {
+        if (failureRatePercent <= 0 || failureRatePercent > 100) {
+            throw new IllegalArgumentException("Failure rate threshold must be within 1..100: " + failureRatePercent);
+        }
+        this.failureRatePercent = failureRatePercent;
+        this.minimumCalls = minimumCalls;
+        this.window = window;
+        this.openDuration = openDuration;
+        this.halfOpenCalls = halfOpenCalls;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWait = maxWait;
+        this.mappers = mappers;
+    }
+
+    public CircuitBreaker circuitBreaker(String service) {
+        return breakers.computeIfAbsent(service, s -> bind(
+                new CircuitBreaker(s, failureRatePercent, minimumCalls, window, openDuration, halfOpenCalls, mappers)));
+    }
+
+    public Bulkhead bulkhead(String service) {
+        return bulkheads.computeIfAbsent(service, s -> bind(new Bulkhead(s, maxConcurrent, maxWait, mappers)));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        breakers.values().forEach(b -> b.bindTo(registry));
+        bulkheads.values().forEach(b -> b.bindTo(registry));
+    }
+
+    private <T extends MeterBinder> T bind(T binder) {
+        var r = registry;
+        if (r != null) binder.bindTo(r);
+        return binder;
+    }
+}
@@ -0,0 +1,44 @@
+package org.lastrix.http.client.api;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.security.cert.X509Certificate;
+
+/**
+ * Single SSL context for all clients, so TLS sessions are resumed instead of doing full handshakes.
+ */
+final class TrustAllSsl {
+    static final X509TrustManager TRUST_MANAGER = new NonValidatingTrustManager();
+    private static final SSLSocketFactory SOCKET_FACTORY = createSocketFactory();
+
+    private TrustAllSsl() {
+    }
+
+    static SSLSocketFactory socketFactory() {
+        return SOCKET_FACTORY;
+    }
+
+    private static SSLSocketFactory createSocketFactory() {
+        try {
+            SSLContext ctx = SSLContext.getInstance("TLS");
+            ctx.init(null, new TrustManager[]{TRUST_MANAGER}, null);
+            return ctx.getSocketFactory();
+        } catch (Exception e) {
+            throw new IllegalStateException("Error creating SSL Socket Factory!", e);
+        }
+    }
+
+    private static class NonValidatingTrustManager implements X509TrustManager {
+        public X509Certificate[] getAcceptedIssuers() {
+            return new X509Certificate[0];
+        }
+
+        public void checkClientTrusted(X509Certificate[] certs, String authType) {
+        }
+
+        public void checkServerTrusted(X509Certificate[] certs, String authType) {
+        }
+    }
+}
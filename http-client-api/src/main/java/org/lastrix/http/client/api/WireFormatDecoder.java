@@ -0,0 +1,46 @@
+package org.lastrix.http.client.api;
+
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import feign.Response;
+import feign.Util;
+import feign.codec.Decoder;
+import feign.jackson.JacksonDecoder;
+import org.lastrix.rest.WireFormat;
+import org.lastrix.rest.WireFormatMappers;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Decodes responses by their content type, so a client may get JSON from services not supporting binary formats.
+ */
+public final class WireFormatDecoder implements Decoder {
+    private final WireFormatMappers mappers;
+    private final JacksonDecoder jsonDecoder;
+
+    public WireFormatDecoder(WireFormatMappers mappers) {
+        this.mappers = mappers;
+        this.jsonDecoder = new JacksonDecoder(mappers.get(WireFormat.JSON));
+    }
+
+    @Override
+    public Object decode(Response response, Type type) throws IOException {
+        var format = WireFormat.fromContentType(contentType(response));
+        if (!format.isBinary()) return jsonDecoder.decode(response, type);
+        if (response.status() == 404 || response.status() == 204) return Util.emptyValueOf(type);
+        if (response.body() == null) return null;
+        var mapper = mappers.get(format);
+        try (var is = response.body().asInputStream()) {
+            return mapper.readValue(is, mapper.constructType(type));
+        } catch (RuntimeJsonMappingException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw e;
+        }
+    }
+
+    static String contentType(Response response) {
+        var values = response.headers().get(HttpHeaders.CONTENT_TYPE);
+        return values == null || values.isEmpty() ? null : values.iterator().next();
+    }
+}
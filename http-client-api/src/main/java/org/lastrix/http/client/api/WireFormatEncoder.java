@@ -0,0 +1,57 @@
+package org.lastrix.http.client.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.RequestTemplate;
+import feign.codec.EncodeException;
+import feign.codec.Encoder;
+import org.lastrix.rest.WireFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.lang.reflect.Type;
+import java.util.Collections;
+
+/**
+ * Writes request bodies in a binary {@link WireFormat}.
+ * Bodies of methods declaring their content type (forms, explicit {@code consumes}), strings, byte arrays and files
+ * are left to the delegate, as the remote side expects exactly what it declared.
+ */
+public final class WireFormatEncoder implements Encoder {
+    private final Encoder delegate;
+    private final ObjectMapper mapper;
+    private final WireFormat format;
+
+    public WireFormatEncoder(Encoder delegate, ObjectMapper mapper, WireFormat format) {
+        if (!format.isBinary()) throw new IllegalArgumentException("Binary wire format expected: " + format);
+        this.delegate = delegate;
+        this.mapper = mapper;
+        this.format = format;
+    }
+
+    @Override
+    public void encode(Object object, Type bodyType, RequestTemplate template) throws EncodeException {
+        if (object == null || isPlain(object) || hasContentType(template)) {
+            delegate.encode(object, bodyType, template);
+            return;
+        }
+        try {
+            var bytes = mapper.writerFor(mapper.constructType(bodyType)).writeValueAsBytes(object);
+            template.header(HttpHeaders.CONTENT_TYPE, Collections.emptyList());
+            template.header(HttpHeaders.CONTENT_TYPE, format.getMediaType().toString());
+            template.body(bytes, null);
+        } catch (JsonProcessingException e) {
+            throw new EncodeException("Unable to encode request body as " + format, e);
+        }
+    }
+
+    private static boolean isPlain(Object object) {
+        return object instanceof String || object instanceof byte[]
+                || object instanceof MultipartFile || object instanceof MultipartFile[];
+    }
+
+    private static boolean hasContentType(RequestTemplate template) {
+        var values = template.headers().get(HttpHeaders.CONTENT_TYPE);
+        return values != null && !values.isEmpty();
+    }
+}
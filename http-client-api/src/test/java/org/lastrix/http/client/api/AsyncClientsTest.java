@@ -0,0 +1,79 @@
+package org.lastrix.http.client.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.lastrix.rest.Deadline;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncClientsTest {
+    private final AsyncClients asyncClients = new AsyncClients(4, 16, 1);
+
+    @AfterEach
+    public void close() {
+        asyncClients.close();
+    }
+
+    @Test
+    public void testCall() throws Exception {
+        var async = asyncClients.create(AsyncEcho.class, Echo.class, new DeadlineEcho(), "echo", 1);
+        assertEquals("hello", async.echo("hello").get(1L, TimeUnit.SECONDS));
+        var remaining = Deadline.after(Duration.ofMinutes(1L)).call(() -> async.echo(null));
+        assertEquals("deadline", remaining.get(1L, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testDefaultMethod() throws Exception {
+        var async = asyncClients.create(AsyncEcho.class, Echo.class, new DeadlineEcho(), "echo", 1);
+        assertEquals("HELLO", async.shout("hello").get(1L, TimeUnit.SECONDS));
+        assertTrue(async.toString().startsWith("Async"));
+    }
+
+    @Test
+    public void testInFlightLimit() throws Exception {
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        Echo blocking = value -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return value;
+        };
+        var async = asyncClients.create(AsyncEcho.class, Echo.class, blocking, "blocking", 1);
+        var first = async.echo("first");
+        assertTrue(started.await(1L, TimeUnit.SECONDS));
+        var e = assertThrows(ExecutionException.class, () -> async.echo("second").get(1L, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof RejectedExecutionException);
+        release.countDown();
+        assertEquals("first", first.get(1L, TimeUnit.SECONDS));
+    }
+
+    public interface Echo {
+        String echo(String value);
+    }
+
+    public interface AsyncEcho {
+        CompletableFuture<String> echo(String value);
+
+        default CompletableFuture<String> shout(String value) {
+            return echo(value).thenApply(String::toUpperCase);
+        }
+    }
+
+    private static final class DeadlineEcho implements Echo {
+        @Override
+        public String echo(String value) {
+            return value == null ? (Deadline.current() == null ? "none" : "deadline") : value;
+        }
+    }
+}
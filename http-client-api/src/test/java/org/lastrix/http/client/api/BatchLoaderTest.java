@@ -0,0 +1,76 @@
+package org.lastrix.http.client.api;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchLoaderTest {
+    private final List<List<Integer>> calls = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void testMaxBatchSize() {
+        var registry = new SimpleMeterRegistry();
+        var loader = new BatchLoader<Integer, String>("numbers", this::call, Integer::valueOf, 3, Duration.ofMinutes(1L));
+        loader.bindTo(registry);
+
+        var values = loader.loadAll(List.of(1, 2, 2, 3)).join();
+        assertEquals(List.of("1", "2", "2", "3"), values);
+        // equal keys share a slot, the third distinct key fills the batch without waiting for the window
+        assertEquals(List.of(List.of(1, 2, 3)), calls);
+
+        var sizes = registry.get("mafp.http.client.batch.size").summary();
+        assertEquals(1L, sizes.count());
+        assertEquals(3.0, sizes.totalAmount());
+    }
+
+    @Test
+    public void testWindow() {
+        var loader = new BatchLoader<Integer, String>("numbers", this::call, Integer::valueOf, 100, Duration.ofMillis(20L));
+        var first = loader.load(1);
+        var second = loader.load(2);
+        assertEquals("1", first.orTimeout(1L, TimeUnit.SECONDS).join());
+        assertEquals("2", second.join());
+        assertEquals(List.of(List.of(1, 2)), calls);
+    }
+
+    @Test
+    public void testFailures() {
+        var loader = new BatchLoader<Integer, String>("numbers", keys -> call(keys).subList(1, keys.size()),
+                Integer::valueOf, 2, Duration.ofMinutes(1L));
+        var missing = loader.load(1);
+        assertEquals("2", loader.get(2));
+        var e = assertThrows(CompletionException.class, missing::join);
+        assertTrue(e.getCause() instanceof IllegalStateException);
+
+        var failing = new BatchLoader<Integer, String>("numbers", keys -> {
+            throw new IllegalArgumentException("down");
+        }, Integer::valueOf, 1, Duration.ofMinutes(1L));
+        assertEquals("down", assertThrows(IllegalArgumentException.class, () -> failing.get(1)).getMessage());
+    }
+
+    @Test
+    public void testRejected() {
+        var loader = new BatchLoader<Integer, String>("numbers", this::call, Integer::valueOf, 1, Duration.ofMinutes(1L),
+                command -> {
+                    throw new RejectedExecutionException("full");
+                });
+        var e = assertThrows(CompletionException.class, () -> loader.load(1).join());
+        assertTrue(e.getCause() instanceof RejectedExecutionException);
+        assertTrue(calls.isEmpty());
+    }
+
+    private List<String> call(List<Integer> keys) {
+        calls.add(new ArrayList<>(keys));
+        return keys.stream().map(Object::toString).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,143 @@
+package org.lastrix.http.client.api;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.RetryableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.lastrix.rest.Deadline;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.lastrix.http.client.api.TestCalls.*;
+
+public class BudgetRetryerTest {
+    @Test
+    public void testBudget() {
+        var budget = new RetryBudget("service", 0.5, 2);
+        assertTrue(budget.tryWithdraw());
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+        // two successful calls earn one retry, the balance is capped by max tokens
+        budget.deposit();
+        budget.deposit();
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+        for (int i = 0; i < 10; i++) budget.deposit();
+        assertTrue(budget.tryWithdraw());
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+    }
+
+    @Test
+    public void testGiveUp() {
+        var registry = new SimpleMeterRegistry();
+        var budget = new RetryBudget("service", 0.1, 1);
+        budget.bindTo(registry);
+        var retryer = new BudgetRetryer(null, 3, 1L, 10L).withBudget(budget);
+
+        retryer.continueOrPropagate(failure(Request.HttpMethod.GET, null));
+        assertEquals(1.0, count(registry, "retried"));
+        // the only token is spent
+        assertThrows(RetryableException.class, () -> retryer.continueOrPropagate(failure(Request.HttpMethod.GET, null)));
+        assertEquals(1.0, count(registry, "budget-exhausted"));
+
+        var post = new BudgetRetryer(null, 3, 1L, 10L).withBudget(budget);
+        assertThrows(RetryableException.class, () -> post.continueOrPropagate(failure(Request.HttpMethod.POST, null)));
+        assertEquals(1.0, count(registry, "not-idempotent"));
+
+        var once = new BudgetRetryer(null, 1, 1L, 10L).withBudget(budget);
+        assertThrows(RetryableException.class, () -> once.continueOrPropagate(failure(Request.HttpMethod.GET, null)));
+        assertEquals(1.0, count(registry, "attempts-exhausted"));
+    }
+
+    @Test
+    public void testRetryAfter() {
+        var registry = new SimpleMeterRegistry();
+        var budget = new RetryBudget("service", 0.1, 10);
+        budget.bindTo(registry);
+        var retryer = new BudgetRetryer(null, 3, 1L, 1000L).withBudget(budget);
+
+        var start = System.nanoTime();
+        retryer.continueOrPropagate(failure(Request.HttpMethod.GET, new Date(System.currentTimeMillis() + 200L)));
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(150L).toNanos());
+
+        // an hour is far beyond the max delay, the thread must not wait for it
+        start = System.nanoTime();
+        assertThrows(RetryableException.class, () -> retryer.continueOrPropagate(
+                failure(Request.HttpMethod.GET, new Date(System.currentTimeMillis() + 3_600_000L))));
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(1L).toNanos());
+        assertEquals(1.0, count(registry, "retry-after-exceeded"));
+    }
+
+    @Test
+    public void testDeadline() throws Exception {
+        var registry = new SimpleMeterRegistry();
+        var budget = new RetryBudget("service", 0.1, 10);
+        budget.bindTo(registry);
+        var retryer = new BudgetRetryer(null, 3, 500L, 1000L).withBudget(budget);
+        Deadline.after(Duration.ofMillis(100L)).run(() -> assertThrows(RetryableException.class,
+                () -> retryer.continueOrPropagate(failure(Request.HttpMethod.GET, null))));
+        assertEquals(1.0, count(registry, "deadline-exceeded"));
+
+        // the remaining time is passed along and bounds the read timeout
+        Client client = (request, options) -> Response.builder()
+                .status(200)
+                .request(request)
+                .headers(Map.of(Deadline.HEADER, request.headers().get(Deadline.HEADER)))
+                .body(Integer.toString(options.readTimeoutMillis()), StandardCharsets.UTF_8)
+                .build();
+        var response = Deadline.after(Duration.ofSeconds(5L)).call(() -> {
+            try {
+                return budget.enrich(client).execute(REQUEST, new Request.Options());
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        var remaining = Long.parseLong(response.headers().get(Deadline.HEADER).iterator().next());
+        assertTrue(remaining > 4000L && remaining <= 5000L, "remaining " + remaining);
+        var readTimeout = Long.parseLong(new String(response.body().asInputStream().readAllBytes(), StandardCharsets.UTF_8));
+        assertTrue(readTimeout <= 5000L, "read timeout " + readTimeout);
+
+        var expired = Deadline.after(Duration.ZERO);
+        var e = assertThrows(RetryBudget.DeadlineExceededException.class, () -> expired.call(() -> {
+            try {
+                return budget.enrich(client).execute(REQUEST, new Request.Options());
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }));
+        assertEquals(2.0, count(registry, "deadline-exceeded"));
+        // the retryer gives it up at once and does not count it again
+        assertThrows(RetryBudget.DeadlineExceededException.class, () -> retryer.continueOrPropagate(e));
+        assertEquals(2.0, count(registry, "deadline-exceeded"));
+    }
+
+    @Test
+    public void testDepositOnSuccessOnly() throws IOException {
+        var budget = new RetryBudget("service", 1.0, 1);
+        assertTrue(budget.tryWithdraw());
+        for (var status : new int[]{408, 429, 404, 503}) {
+            budget.enrich(status(status)).execute(REQUEST, new Request.Options());
+            assertFalse(budget.tryWithdraw(), "deposited on " + status);
+        }
+        budget.enrich(status(304)).execute(REQUEST, new Request.Options());
+        assertTrue(budget.tryWithdraw());
+        budget.enrich(status(200)).execute(REQUEST, new Request.Options());
+        assertTrue(budget.tryWithdraw());
+    }
+
+    private static RetryableException failure(Request.HttpMethod method, Date retryAfter) {
+        return new RetryableException(503, "unavailable", method, retryAfter, REQUEST);
+    }
+
+    private static double count(SimpleMeterRegistry registry, String result) {
+        return registry.get("mafp.http.client.retries").tag("result", result).functionCounter().count();
+    }
+}
@@ -0,0 +1,61 @@
+package org.lastrix.http.client.api;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.lastrix.http.client.api.TestCalls.*;
+
+public class BulkheadTest {
+    @Test
+    public void testRejection() throws Exception {
+        var registry = new SimpleMeterRegistry();
+        var bulkhead = new Bulkhead("service", 1, Duration.ofMillis(50L), MAPPERS);
+        bulkhead.bindTo(registry);
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var client = bulkhead.enrich((Client) (request, options) -> {
+            started.countDown();
+            try {
+                release.await(5L, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Response.builder().status(200).request(request).headers(Map.of()).body(new byte[0]).build();
+        });
+        var first = CompletableFuture.supplyAsync(() -> {
+            try {
+                return client.execute(REQUEST, new Request.Options()).status();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(started.await(5L, TimeUnit.SECONDS));
+        assertEquals(1, bulkhead.getInFlight());
+
+        var rejected = client.execute(REQUEST, new Request.Options());
+        assertEquals(503, rejected.status());
+        assertEquals("bulkhead-full", rejected.headers().get(RejectedResponses.HEADER).iterator().next());
+        assertEquals(1.0, registry.get("mafp.http.client.isolation.rejected").tag("reason", "bulkhead-full")
+                .functionCounter().count());
+
+        release.countDown();
+        assertEquals(200, first.get(5L, TimeUnit.SECONDS));
+        assertEquals(0, bulkhead.getInFlight());
+        assertEquals(200, client.execute(REQUEST, new Request.Options()).status());
+    }
+
+    @Test
+    public void testSize() {
+        assertThrows(IllegalArgumentException.class, () -> new Bulkhead("service", 0, Duration.ZERO, MAPPERS));
+    }
+}
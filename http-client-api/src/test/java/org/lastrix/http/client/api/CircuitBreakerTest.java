@@ -0,0 +1,155 @@
+package org.lastrix.http.client.api;
+
+import feign.Client;
+import feign.Request;
+import org.junit.jupiter.api.Test;
+import org.lastrix.rest.Deadline;
+import org.lastrix.rest.Rest;
+import org.lastrix.rest.WireFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.lastrix.http.client.api.TestCalls.*;
+
+public class CircuitBreakerTest {
+    @Test
+    public void testOpenAndClose() throws Exception {
+        var breaker = breaker(2);
+        var client = breaker.enrich(status(500));
+        assertEquals(500, client.execute(REQUEST, new Request.Options()).status());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(500, client.execute(REQUEST, new Request.Options()).status());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        var rejected = client.execute(REQUEST, new Request.Options());
+        assertEquals(503, rejected.status());
+        assertTrue(RejectedResponses.isRejected(rejected));
+
+        Thread.sleep(150L);
+        var ok = breaker.enrich(status(200));
+        assertEquals(200, ok.execute(REQUEST, new Request.Options()).status());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertEquals(200, ok.execute(REQUEST, new Request.Options()).status());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testRejectedFormat() throws Exception {
+        var client = open(breaker(1)).enrich(status(200));
+        var smile = Request.create(Request.HttpMethod.GET, "http://service/items",
+                Map.of(HttpHeaders.ACCEPT, List.of(WireFormat.SMILE.getMediaType() + ", application/json;q=0.9")),
+                null, StandardCharsets.UTF_8, null);
+        var rejected = client.execute(smile, new Request.Options());
+        assertEquals(WireFormat.SMILE.getMediaType().toString(),
+                rejected.headers().get(HttpHeaders.CONTENT_TYPE).iterator().next());
+        var rest = MAPPERS.get(WireFormat.SMILE).readValue(rejected.body().asInputStream(), Rest.class);
+        assertEquals(List.of("Circuit breaker is open for service"), rest.getErrors());
+
+        // JSON without an accept header
+        rejected = client.execute(REQUEST, new Request.Options());
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, rejected.headers().get(HttpHeaders.CONTENT_TYPE).iterator().next());
+    }
+
+    @Test
+    public void testHalfOpenFailure() throws Exception {
+        var breaker = open(breaker(2));
+        Thread.sleep(150L);
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        // only two trial calls are let through
+        assertFalse(breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void testRejectedIsIgnored() throws Exception {
+        var rejections = new RejectedResponses(MAPPERS);
+        var breaker = open(breaker(1));
+        Thread.sleep(150L);
+        var full = breaker.enrich((Client) (request, options) -> rejections.create(request, "bulkhead-full", "full"));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(503, full.execute(REQUEST, new Request.Options()).status());
+            assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        }
+        // the trial permits were given back every time
+        var ok = breaker.enrich(status(200));
+        assertEquals(200, ok.execute(REQUEST, new Request.Options()).status());
+        assertEquals(200, ok.execute(REQUEST, new Request.Options()).status());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        // rejections do not dilute the failure rate either
+        breaker = breaker(1);
+        full = breaker.enrich((Client) (request, options) -> rejections.create(request, "bulkhead-full", "full"));
+        for (int i = 0; i < 10; i++) full.execute(REQUEST, new Request.Options());
+        breaker.enrich(status(500)).execute(REQUEST, new Request.Options());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void testBulkheadRejection() throws Exception {
+        var breaker = open(breaker(1));
+        Thread.sleep(150L);
+        var bulkhead = new Bulkhead("service", 1, Duration.ZERO, MAPPERS);
+        var client = breaker.enrich(bulkhead.enrich(status(200)));
+        var blocked = bulkhead.enrich((Client) (request, options) -> {
+            var response = client.execute(request, options);
+            assertEquals(503, response.status());
+            return response;
+        });
+        // the outer call holds the only bulkhead permit, the inner one is rejected
+        blocked.execute(REQUEST, new Request.Options());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertEquals(200, client.execute(REQUEST, new Request.Options()).status());
+        assertEquals(200, client.execute(REQUEST, new Request.Options()).status());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testDeadlineIsIgnored() {
+        var breaker = breaker(1);
+        var budget = new RetryBudget("service", 0.1, 10);
+        var client = breaker.enrich(budget.enrich(status(200)));
+        var expired = Deadline.after(Duration.ZERO);
+        for (int i = 0; i < 3; i++) {
+            assertThrows(RetryBudget.DeadlineExceededException.class, () -> expired.run(() -> execute(client)));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        // a timeout cut short by the deadline is not the service's fault
+        var timeout = breaker.enrich((Client) (request, options) -> {
+            throw new SocketTimeoutException("Read timed out");
+        });
+        assertThrows(IllegalStateException.class, () -> expired.run(() -> execute(timeout)));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        // without a deadline it is
+        assertThrows(SocketTimeoutException.class, () -> timeout.execute(REQUEST, new Request.Options()));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private static CircuitBreaker breaker(int minimumCalls) {
+        return new CircuitBreaker("service", 50, minimumCalls, Duration.ofSeconds(10L), Duration.ofMillis(100L), 2, MAPPERS);
+    }
+
+    private static CircuitBreaker open(CircuitBreaker breaker) {
+        while (breaker.getState() != CircuitBreaker.State.OPEN) breaker.onFailure();
+        return breaker;
+    }
+
+    private static void execute(Client client) {
+        try {
+            client.execute(REQUEST, new Request.Options());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.lastrix.http.client.api;
+
+import feign.Request;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.tls.HandshakeCertificates;
+import okhttp3.tls.HeldCertificate;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DefaultHttpClientEngineTest {
+
+    @Test
+    public void testSslSocketFactory() throws IOException {
+        var root = new HeldCertificate.Builder().certificateAuthority(0).build();
+        try (var server = new MockWebServer()) {
+            server.start();
+            var certificate = new HeldCertificate.Builder()
+                    .addSubjectAlternativeName(server.getHostName())
+                    .signedBy(root)
+                    .build();
+            server.useHttps(new HandshakeCertificates.Builder()
+                    .heldCertificate(certificate, root.certificate())
+                    .build().sslSocketFactory(), false);
+            server.enqueue(new MockResponse().setBody("ok"));
+            var request = Request.create(Request.HttpMethod.GET, server.url("/").toString(), Map.of(), null,
+                    StandardCharsets.UTF_8, null);
+
+            var engine = new DefaultHttpClientEngine();
+            // a factory of a configuration is used instead of the trust all one
+            var other = new HandshakeCertificates.Builder()
+                    .addTrustedCertificate(new HeldCertificate.Builder().certificateAuthority(0).build().certificate())
+                    .build();
+            assertNotSame(engine.client(), engine.client(other.sslSocketFactory(), null));
+            assertThrows(IOException.class, () -> engine.client(other.sslSocketFactory(), null)
+                    .execute(request, new Request.Options()));
+
+            var trusted = new HandshakeCertificates.Builder().addTrustedCertificate(root.certificate()).build();
+            try (var response = engine.client(trusted.sslSocketFactory(), null).execute(request, new Request.Options())) {
+                assertEquals(200, response.status());
+            }
+        }
+    }
+}
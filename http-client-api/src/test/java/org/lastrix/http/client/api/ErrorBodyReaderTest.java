@@ -0,0 +1,97 @@
+package org.lastrix.http.client.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.Request;
+import feign.Response;
+import org.apache.commons.io.input.CountingInputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ErrorBodyReaderTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    public void testErrors() throws Exception {
+        assertEquals(List.of("first", "second"), ErrorBodyReader.errors(MAPPER,
+                stream("{\"data\":{\"skipped\":[1,2,3]},\"success\":false,\"errors\":[\"first\",{\"nested\":1},\"second\"]}")));
+        assertNull(ErrorBodyReader.errors(MAPPER, stream("{\"success\":false,\"errors\":[]}")));
+        assertNull(ErrorBodyReader.errors(MAPPER, stream("[\"not a rest\"]")));
+        assertThrows(IllegalStateException.class,
+                () -> ErrorBodyReader.errors(MAPPER, stream("{\"success\":true,\"errors\":[\"ignored\"],\"data\":1}")));
+    }
+
+    @Test
+    public void testStopsAfterErrors() throws Exception {
+        var counting = new CountingInputStream(new SequenceInputStream(
+                stream("{\"success\":false,\"errors\":[\"failed\"],\"data\":["), new EndlessArray()));
+        assertEquals(List.of("failed"), ErrorBodyReader.errors(MAPPER, counting));
+        assertTrue(counting.getByteCount() <= ErrorBodyReader.MAX_BYTES, "read " + counting.getByteCount());
+    }
+
+    @Test
+    public void testLimit() {
+        // errors behind the limit are never reached, the rest of the body is not read
+        var counting = new CountingInputStream(new SequenceInputStream(
+                stream("{\"success\":false,\"data\":["), new EndlessArray()));
+        assertThrows(IOException.class, () -> ErrorBodyReader.errors(MAPPER, counting));
+        assertEquals(ErrorBodyReader.MAX_BYTES, counting.getByteCount());
+    }
+
+    @Test
+    public void testSnippet() {
+        assertEquals("[no body]", ErrorBodyReader.snippet(null));
+        assertEquals("<html>short</html>", ErrorBodyReader.snippet(body("<html>short</html>".getBytes(StandardCharsets.UTF_8))));
+
+        var exact = "a".repeat(ErrorBodyReader.MAX_SNIPPET);
+        assertEquals(exact, ErrorBodyReader.snippet(body(exact.getBytes(StandardCharsets.UTF_8))));
+
+        var snippet = ErrorBodyReader.snippet(body(("b".repeat(ErrorBodyReader.MAX_SNIPPET) + "tail")
+                .getBytes(StandardCharsets.UTF_8)));
+        assertEquals("b".repeat(ErrorBodyReader.MAX_SNIPPET) + "... [truncated]", snippet);
+    }
+
+    @Test
+    public void testStructured() {
+        assertTrue(ErrorBodyReader.isStructured(null));
+        assertTrue(ErrorBodyReader.isStructured("application/json;charset=UTF-8"));
+        assertTrue(ErrorBodyReader.isStructured("application/problem+json"));
+        assertFalse(ErrorBodyReader.isStructured("text/html"));
+        assertFalse(ErrorBodyReader.isStructured("not a media type"));
+    }
+
+    private static InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Response.Body body(byte[] bytes) {
+        return Response.builder()
+                .status(502)
+                .request(Request.create(Request.HttpMethod.GET, "http://service", Map.of(), null, StandardCharsets.UTF_8, null))
+                .headers(Map.of())
+                .body(bytes)
+                .build()
+                .body();
+    }
+
+    /**
+     * {@code 1,1,1,...} without an end.
+     */
+    private static final class EndlessArray extends InputStream {
+        private boolean comma;
+
+        @Override
+        public int read() {
+            comma = !comma;
+            return comma ? '1' : ',';
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.lastrix.http.client.api;
+
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.tls.HandshakeCertificates;
+import okhttp3.tls.HeldCertificate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OkHttpClientEngineTest {
+    private MockWebServer server;
+    private OkHttpClientEngine engine;
+
+    @BeforeEach
+    public void start() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        engine = new OkHttpClientEngine(4, Duration.ofMinutes(1L), 1, Duration.ofMillis(100L), false);
+    }
+
+    @AfterEach
+    public void stop() throws IOException {
+        engine.close();
+        server.shutdown();
+    }
+
+    @Test
+    public void testPerHostLimit() throws IOException {
+        var registry = new SimpleMeterRegistry();
+        engine.bindTo(registry);
+        for (int i = 0; i < 2; i++) server.enqueue(new MockResponse().setBody("ok"));
+
+        var held = get("/first");
+        assertEquals(200, held.status());
+        var e = assertThrows(IOException.class, () -> get("/second"));
+        assertTrue(e.getMessage().startsWith("Too many concurrent calls"), e.getMessage());
+        assertEquals(1.0, registry.get("mafp.http.client.rejected").functionCounter().count());
+
+        // the permit is released with the body
+        held.close();
+        try (var response = get("/third")) {
+            assertEquals("ok", body(response));
+        }
+    }
+
+    @Test
+    public void testCustomTrust() throws IOException {
+        var root = new HeldCertificate.Builder().certificateAuthority(0).build();
+        var certificate = new HeldCertificate.Builder()
+                .addSubjectAlternativeName(server.getHostName())
+                .signedBy(root)
+                .build();
+        server.useHttps(new HandshakeCertificates.Builder()
+                .heldCertificate(certificate, root.certificate())
+                .build().sslSocketFactory(), false);
+        for (int i = 0; i < 2; i++) server.enqueue(new MockResponse().setBody("ok"));
+
+        var trusted = new HandshakeCertificates.Builder().addTrustedCertificate(root.certificate()).build();
+        try (var response = engine.client(trusted.sslSocketFactory(), trusted.trustManager())
+                .execute(request("/trusted"), new Request.Options())) {
+            assertEquals("ok", body(response));
+        }
+
+        var other = new HandshakeCertificates.Builder()
+                .addTrustedCertificate(new HeldCertificate.Builder().certificateAuthority(0).build().certificate())
+                .build();
+        var client = engine.client(other.sslSocketFactory(), other.trustManager());
+        assertThrows(IOException.class, () -> client.execute(request("/untrusted"), new Request.Options()));
+
+        assertThrows(IllegalStateException.class, () -> engine.client(trusted.sslSocketFactory(), null));
+    }
+
+    private Response get(String path) throws IOException {
+        return engine.client().execute(request(path), new Request.Options());
+    }
+
+    private Request request(String path) {
+        return Request.create(Request.HttpMethod.GET, server.url(path).toString(), Map.of(), null,
+                StandardCharsets.UTF_8, null);
+    }
+
+    private static String body(Response response) throws IOException {
+        return new String(response.body().asInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    }
+}
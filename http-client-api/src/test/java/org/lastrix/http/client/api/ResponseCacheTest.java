@@ -0,0 +1,158 @@
+package org.lastrix.http.client.api;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.codec.Decoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResponseCacheTest {
+    private final ResponseCache cache = new ResponseCache("countries", 100L, Duration.ofMinutes(10L));
+    private final List<Request> requests = new ArrayList<>();
+    private final AtomicInteger decoded = new AtomicInteger();
+    private final Decoder decoder = (response, type) -> {
+        decoded.incrementAndGet();
+        return new String(response.body().asInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    };
+
+    @Test
+    public void testFreshHit() throws IOException {
+        var client = cache.enrich(server(200, "max-age=60", null));
+        assertEquals("body", call(client, "/countries"));
+        assertEquals("body", call(client, "/countries"));
+        assertEquals(1, requests.size());
+        // every caller decodes a copy of its own
+        assertEquals(2, decoded.get());
+    }
+
+    @Test
+    public void testServedResponse() throws IOException {
+        var client = cache.enrich(server(200, "max-age=60", "\"v1\""));
+        client.execute(request("/countries", Map.of()), new Request.Options()).close();
+        var response = client.execute(request("/countries", Map.of()), new Request.Options());
+        assertEquals(200, response.status());
+        assertEquals(List.of("hit"), new ArrayList<>(response.headers().get(ResponseCache.CACHE_HEADER)));
+        assertEquals(List.of("\"v1\""), new ArrayList<>(response.headers().get(HttpHeaders.ETAG)));
+        assertEquals("body", new String(response.body().asInputStream().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testCredentials() throws IOException {
+        var client = cache.enrich(server(200, "max-age=60", null));
+        assertEquals("body", call(client, "/countries", Map.of(HttpHeaders.AUTHORIZATION, List.of("Bearer a"))));
+        assertEquals("body", call(client, "/countries", Map.of(HttpHeaders.AUTHORIZATION, List.of("Bearer a"))));
+        assertEquals(1, requests.size());
+        // another principal never gets the entry of the first one
+        assertEquals("body", call(client, "/countries", Map.of(HttpHeaders.AUTHORIZATION, List.of("Bearer b"))));
+        assertEquals("body", call(client, "/countries"));
+        assertEquals(3, requests.size());
+    }
+
+    @Test
+    public void testVary() throws IOException {
+        Client client = (request, options) -> {
+            requests.add(request);
+            return Response.builder()
+                    .status(200)
+                    .request(request)
+                    .headers(Map.of(HttpHeaders.CACHE_CONTROL, List.of("max-age=60"), HttpHeaders.VARY, List.of("Accept-Language")))
+                    .body(String.join(",", request.headers().getOrDefault("Accept-Language", List.of())), StandardCharsets.UTF_8)
+                    .build();
+        };
+        var cached = cache.enrich(client);
+        assertEquals("en", call(cached, "/countries", Map.of("Accept-Language", List.of("en"))));
+        assertEquals("en", call(cached, "/countries", Map.of("Accept-Language", List.of("en"))));
+        assertEquals("de", call(cached, "/countries", Map.of("Accept-Language", List.of("de"))));
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    public void testLargeBody() throws IOException {
+        var large = "x".repeat(ResponseCache.MAX_BODY + 1);
+        Client client = (request, options) -> {
+            requests.add(request);
+            return Response.builder()
+                    .status(200)
+                    .request(request)
+                    .headers(Map.of(HttpHeaders.CACHE_CONTROL, List.of("max-age=60")))
+                    .body(new ByteArrayInputStream(large.getBytes(StandardCharsets.UTF_8)), null)
+                    .build();
+        };
+        var cached = cache.enrich(client);
+        assertEquals(large, call(cached, "/countries"));
+        assertEquals(large, call(cached, "/countries"));
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    public void testRevalidation() throws IOException {
+        var registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        var client = cache.enrich(server(200, "no-cache", "\"v1\""));
+        assertEquals("body", call(client, "/countries"));
+
+        var revalidating = cache.enrich(server(304, "no-cache", "\"v1\""));
+        assertEquals("body", call(revalidating, "/countries"));
+        assertEquals(2, requests.size());
+        assertEquals(List.of("\"v1\""), new ArrayList<>(requests.get(1).headers().get(HttpHeaders.IF_NONE_MATCH)));
+        // the 304 answer is served with the stored body
+        assertEquals(1.0, registry.get("mafp.http.client.cache.requests").tag("result", "revalidated").functionCounter().count());
+
+        var changed = cache.enrich(server(200, "no-cache", "\"v2\""));
+        assertEquals("body", call(changed, "/countries"));
+        assertEquals(3, requests.size());
+        assertEquals(2.0, registry.get("mafp.http.client.cache.requests").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    public void testNotStored() throws IOException {
+        var client = cache.enrich(server(200, "no-store", "\"v1\""));
+        call(client, "/countries");
+        call(client, "/countries");
+        assertEquals(2, requests.size());
+        // other urls are other entries
+        var cached = cache.enrich(server(200, "max-age=60", null));
+        call(cached, "/countries?page=1");
+        call(cached, "/countries?page=2");
+        assertEquals(4, requests.size());
+    }
+
+    private Client server(int status, String cacheControl, String etag) {
+        return (request, options) -> {
+            requests.add(request);
+            var headers = new HashMap<String, Collection<String>>();
+            headers.put(HttpHeaders.CACHE_CONTROL, List.of(cacheControl));
+            if (etag != null) headers.put(HttpHeaders.ETAG, List.of(etag));
+            return Response.builder()
+                    .status(status)
+                    .reason(status == 200 ? "OK" : "Not Modified")
+                    .request(request)
+                    .headers(headers)
+                    .body("body", StandardCharsets.UTF_8)
+                    .build();
+        };
+    }
+
+    private String call(Client client, String path) throws IOException {
+        return call(client, path, Map.of());
+    }
+
+    private String call(Client client, String path, Map<String, Collection<String>> headers) throws IOException {
+        return (String) decoder.decode(client.execute(request(path, headers), new Request.Options()), String.class);
+    }
+
+    private static Request request(String path, Map<String, Collection<String>> headers) {
+        return Request.create(Request.HttpMethod.GET, "http://countries" + path, headers, null, StandardCharsets.UTF_8, null);
+    }
+}
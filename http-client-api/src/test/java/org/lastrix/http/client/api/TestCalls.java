@@ -0,0 +1,34 @@
+package org.lastrix.http.client.api;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import org.lastrix.rest.RestAutoConfiguration;
+import org.lastrix.rest.WireFormatMappers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Request and stub clients shared by tests of client capabilities.
+ */
+final class TestCalls {
+    static final Request REQUEST = Request.create(Request.HttpMethod.GET, "http://service/items", Map.of(), null,
+            StandardCharsets.UTF_8, null);
+    static final WireFormatMappers MAPPERS = new WireFormatMappers(RestAutoConfiguration.createObjectMapper());
+
+    private TestCalls() {
+    }
+
+    /**
+     * @return client answering every call with an empty response of the status
+     */
+    static Client status(int status) {
+        return (request, options) -> Response.builder()
+                .status(status)
+                .request(request)
+                .headers(Map.of())
+                .body(new byte[0])
+                .build();
+    }
+}
@@ -0,0 +1,36 @@
+package org.lastrix.perf.bench;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Typical DTO shape used by benchmarks: Lombok data class with private fields.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BenchDto {
+    private UUID id;
+    private String name;
+    private String description;
+    private long version;
+    private double amount;
+    private boolean active;
+    private Instant created;
+    private List<String> tags;
+
+    public static List<BenchDto> list(int size) {
+        var list = new ArrayList<BenchDto>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(new BenchDto(new UUID(i, i), "name-" + i, "Some description of item number " + i,
+                    i, i * 1.5d, i % 2 == 0, Instant.ofEpochMilli(1_600_000_000_000L + i), List.of("a", "b", "c")));
+        }
+        return list;
+    }
+}
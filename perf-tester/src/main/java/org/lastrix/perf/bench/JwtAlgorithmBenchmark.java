@@ -0,0 +1,90 @@
+package org.lastrix.perf.bench;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import org.lastrix.jwt.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sign and verify cost of algorithms supported by {@link JwtSecret}, verification goes through kid dispatch.
+ * EdDSA is not measured: neither java-jwt 3.x nor JDK 11 provide it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAlgorithmBenchmark {
+    private static final String ISSUER = "mafp.lastrix.org";
+    private static final String KEY_ID = "bench";
+
+    @Param({"RS256", "ES256", "HS256"})
+    public String algorithm;
+
+    private Algorithm signer;
+    private JwtVerifier verifier;
+    private String token;
+
+    @Setup
+    public void setup() throws Exception {
+        signer = createAlgorithm(algorithm);
+        var secret = new JwtSecret(new JwtKeys(List.of(new JwtKey(KEY_ID, signer, true)), KEY_ID));
+        verifier = new JwtVerifier(secret, ISSUER);
+        token = sign();
+    }
+
+    @Benchmark
+    public String sign() {
+        return JWT.create()
+                .withKeyId(KEY_ID)
+                .withExpiresAt(Date.from(Instant.now().plus(1, ChronoUnit.DAYS)))
+                .withIssuer(ISSUER)
+                .withClaim(Jwt.CLAIM_USER_TYPE, UserType.SRV.name())
+                .withClaim(Jwt.CLAIM_USER_ID, new UUID(Long.MAX_VALUE, 3L).toString())
+                .withArrayClaim(Jwt.CLAIM_ROLES, new String[]{"ServiceUser"})
+                .sign(signer);
+    }
+
+    @Benchmark
+    public Object verify() {
+        return verifier.verify(token);
+    }
+
+    private static Algorithm createAlgorithm(String name) throws Exception {
+        switch (name) {
+            case "RS256": {
+                var generator = KeyPairGenerator.getInstance("RSA");
+                generator.initialize(2048);
+                var pair = generator.generateKeyPair();
+                return Algorithm.RSA256((RSAPublicKey) pair.getPublic(), (RSAPrivateKey) pair.getPrivate());
+            }
+            case "ES256": {
+                var generator = KeyPairGenerator.getInstance("EC");
+                generator.initialize(256);
+                var pair = generator.generateKeyPair();
+                return Algorithm.ECDSA256((ECPublicKey) pair.getPublic(), (ECPrivateKey) pair.getPrivate());
+            }
+            case "HS256": {
+                var secret = new byte[32];
+                new SecureRandom().nextBytes(secret);
+                return Algorithm.HMAC256(secret);
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported algorithm: " + name);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.lastrix.perf.bench;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.lastrix.jwt.Jwt;
+import org.lastrix.jwt.JwtSecret;
+import org.lastrix.jwt.JwtVerifier;
+import org.lastrix.jwt.UserType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per request cost of turning an authorization header into claims.
+ * Claims are read several times, as controllers and services usually do.
+ * <p>
+ * Run with gc profiler to see allocation per request:
+ * {@code java -cp perf-tester.jar:<deps> org.openjdk.jmh.Main JwtVerifyBenchmark -prof gc}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtVerifyBenchmark {
+    private static final String ISSUER = "mafp.lastrix.org";
+    private static final int CLAIM_READS = 4;
+
+    private JwtSecret jwtSecret;
+    private JwtVerifier verifier;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtSecret = new JwtSecret();
+        verifier = new JwtVerifier(jwtSecret, ISSUER);
+        token = JWT.create()
+                .withExpiresAt(Date.from(Instant.now().plus(1, ChronoUnit.DAYS)))
+                .withIssuer(ISSUER)
+                .withClaim(Jwt.CLAIM_USER_TYPE, UserType.SRV.name())
+                .withClaim(Jwt.CLAIM_USER_ID, new UUID(Long.MAX_VALUE, 3L).toString())
+                .withArrayClaim(Jwt.CLAIM_ROLES, new String[]{"ServiceUser", "User", "Admin"})
+                .sign(jwtSecret.getAlgorithm());
+    }
+
+    @Benchmark
+    public void perRequestVerifier(Blackhole bh) {
+        JWT.require(jwtSecret.getAlgorithm())
+                .acceptExpiresAt(0)
+                .withIssuer(ISSUER)
+                .build()
+                .verify(token);
+        var decoded = JWT.decode(token);
+        for (int i = 0; i < CLAIM_READS; i++) {
+            bh.consume(userType(decoded));
+            bh.consume(userId(decoded));
+            bh.consume(roles(decoded));
+        }
+    }
+
+    @Benchmark
+    public void sharedVerifier(Blackhole bh) {
+        var jwt = new Jwt(verifier.verify(token));
+        for (int i = 0; i < CLAIM_READS; i++) {
+            bh.consume(jwt.getUserType());
+            bh.consume(jwt.getUserId());
+            bh.consume(jwt.getRoles());
+        }
+    }
+
+    // claim parsing as it was done before memoization in Jwt
+    private static UserType userType(DecodedJWT decoded) {
+        var claim = decoded.getClaim(Jwt.CLAIM_USER_TYPE);
+        return claim.isNull() ? UserType.NONE : UserType.valueOf(claim.asString());
+    }
+
+    private static UUID userId(DecodedJWT decoded) {
+        var claim = decoded.getClaim(Jwt.CLAIM_USER_ID);
+        return claim.isNull() ? null : UUID.fromString(claim.asString());
+    }
+
+    private static Set<String> roles(DecodedJWT decoded) {
+        var claim = decoded.getClaim(Jwt.CLAIM_ROLES);
+        return claim.isNull() ? Collections.emptySet() : Set.of(claim.asArray(String.class));
+    }
+}
@@ -0,0 +1,82 @@
+package org.lastrix.perf.bench;
+
+import org.lastrix.rest.EntityMapper;
+import org.lastrix.rest.ParallelMapping;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Sequential against {@link ParallelMapping} mapping of lists by size and cost of a single mapping,
+ * the size where parallel wins is the threshold to configure.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelMappingBenchmark {
+    @Param({"32", "64", "100", "1000"})
+    public int size;
+
+    /**
+     * Work of a single toDto call in {@link Blackhole#consumeCPU(long)} tokens.
+     */
+    @Param({"100", "1000", "10000"})
+    public long tokens;
+
+    @Param({"4"})
+    public int parallelism;
+
+    @Param({"16"})
+    public int chunkSize;
+
+    private ParallelMapping sequential;
+    private ParallelMapping parallel;
+    private List<Integer> entities;
+    private EntityMapper<Integer, BenchDto> mapper;
+
+    @Setup
+    public void setup() {
+        sequential = new ParallelMapping(0, 0, chunkSize);
+        parallel = new ParallelMapping(parallelism, 0, chunkSize);
+        entities = IntStream.range(0, size).boxed().collect(Collectors.toList());
+        mapper = new EntityMapper<>() {
+            @Override
+            public Integer fromDto(BenchDto dto) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public BenchDto toDto(Integer entity) {
+                Blackhole.consumeCPU(tokens);
+                return BenchDto.list(1).get(0);
+            }
+
+            @Override
+            public boolean isConcurrent() {
+                return true;
+            }
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        parallel.destroy();
+    }
+
+    @Benchmark
+    public List<BenchDto> sequential() {
+        return sequential.map(entities, mapper);
+    }
+
+    @Benchmark
+    public List<BenchDto> parallel() {
+        return parallel.map(entities, mapper);
+    }
+}
@@ -0,0 +1,52 @@
+package org.lastrix.perf.bench;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.lastrix.rest.Pagination;
+import org.lastrix.rest.Rest;
+import org.lastrix.rest.RestAutoConfiguration;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip (serialize + deserialize) of {@link Rest} envelopes with the library ObjectMapper.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RestJsonBenchmark {
+    @Param({"1", "100", "10000"})
+    public int size;
+
+    private ObjectMapper mapper;
+    private JavaType type;
+    private Rest<BenchDto> rest;
+    private byte[] json;
+
+    @Setup
+    public void setup() throws Exception {
+        mapper = RestAutoConfiguration.createObjectMapper();
+        type = mapper.getTypeFactory().constructParametricType(Rest.class, BenchDto.class);
+        rest = Rest.of(BenchDto.list(size), new Pagination(0, size, 1, (long) size));
+        json = mapper.writeValueAsBytes(rest);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return mapper.writeValueAsBytes(rest);
+    }
+
+    @Benchmark
+    public Rest<BenchDto> deserialize() throws Exception {
+        return mapper.readValue(json, type);
+    }
+
+    @Benchmark
+    public Rest<BenchDto> roundTrip() throws Exception {
+        return mapper.readValue(mapper.writeValueAsBytes(rest), type);
+    }
+}
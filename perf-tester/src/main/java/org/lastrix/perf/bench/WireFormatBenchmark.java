@@ -0,0 +1,55 @@
+package org.lastrix.perf.bench;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.lastrix.rest.Pagination;
+import org.lastrix.rest.Rest;
+import org.lastrix.rest.RestAutoConfiguration;
+import org.lastrix.rest.WireFormat;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialize and deserialize cost of {@link Rest} envelopes per {@link WireFormat}.
+ * Payload sizes are logged on setup.
+ */
+@Slf4j
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+    @Param({"1", "100", "10000"})
+    public int size;
+
+    @Param({"JSON", "SMILE", "CBOR"})
+    public WireFormat format;
+
+    private ObjectMapper mapper;
+    private JavaType type;
+    private Rest<BenchDto> rest;
+    private byte[] payload;
+
+    @Setup
+    public void setup() throws Exception {
+        mapper = RestAutoConfiguration.createObjectMapper(format);
+        type = mapper.getTypeFactory().constructParametricType(Rest.class, BenchDto.class);
+        rest = Rest.of(BenchDto.list(size), new Pagination(0, size, 1, (long) size));
+        payload = mapper.writeValueAsBytes(rest);
+        log.info("{} payload of {} items: {} bytes", format, size, payload.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return mapper.writeValueAsBytes(rest);
+    }
+
+    @Benchmark
+    public Rest<BenchDto> deserialize() throws Exception {
+        return mapper.readValue(payload, type);
+    }
+}
@@ -0,0 +1,173 @@
+package org.lastrix.perf.tester;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import feign.RequestInterceptor;
+import lombok.extern.slf4j.Slf4j;
+import org.lastrix.http.client.api.AbstractHttpClientAutoConfiguration;
+import org.lastrix.http.client.api.AbstractRestService;
+import org.lastrix.http.client.api.BatchLoader;
+import org.lastrix.http.client.api.HttpClientAutoConfiguration;
+import org.lastrix.perf.bench.BenchDto;
+import org.lastrix.rest.Rest;
+import org.lastrix.rest.RestAutoConfiguration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lookups of several items by id against a local stub with fixed latency, one call per id or through {@link BatchLoader}.
+ * Calls go through a Feign client built by {@link AbstractHttpClientAutoConfiguration} and an {@link AbstractRestService},
+ * as in services. Round trips per lookup are logged on close.
+ * <p>
+ * {@code -Dperf.batching.enabled=false} to compare with unbatched calls.
+ */
+@Slf4j
+public final class BatchingPerfSuite implements PerfSuite {
+    private static final boolean BATCHING = Boolean.parseBoolean(System.getProperty("perf.batching.enabled", "true"));
+    private static final int LOOKUPS = Integer.parseInt(System.getProperty("perf.batching.lookups", "10"));
+    private static final long LATENCY_MS = Long.parseLong(System.getProperty("perf.batching.latency.ms", "2"));
+    private static final int MAX_BATCH_SIZE = Integer.parseInt(System.getProperty("perf.batching.max.size", "100"));
+    private static final Duration WINDOW = Duration.parse(System.getProperty("perf.batching.window", "PT0.002S"));
+    private static final String URL_PROPERTY = "perf.batching.url";
+
+    private final ObjectMapper mapper = RestAutoConfiguration.createObjectMapper();
+    private final AtomicLong roundTrips = new AtomicLong();
+    private final AtomicLong lookups = new AtomicLong();
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private AnnotationConfigApplicationContext context;
+    private ItemService service;
+
+    @Override
+    public void init() {
+        // otherwise small responses get delayed by Nagle's algorithm
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        try {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        serverExecutor = Executors.newFixedThreadPool(16);
+        server.setExecutor(serverExecutor);
+        server.createContext("/items", this::handle);
+        server.start();
+        var url = "http://localhost:" + server.getAddress().getPort();
+
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("perf", Map.of(URL_PROPERTY, url)));
+        context.register(RestAutoConfiguration.class, HttpClientAutoConfiguration.class, ClientConfiguration.class);
+        context.refresh();
+        service = context.getBean(ItemService.class);
+        log.info("Stub started at {}, batching {}", url, BATCHING ? "enabled" : "disabled");
+    }
+
+    @Override
+    public void next() throws Exception {
+        var ids = new ArrayList<UUID>(LOOKUPS);
+        var random = ThreadLocalRandom.current();
+        for (int i = 0; i < LOOKUPS; i++) ids.add(new UUID(random.nextLong(1000L), random.nextLong()));
+        lookups.addAndGet(ids.size());
+        if (BATCHING) {
+            service.getAll(ids).get();
+        } else {
+            for (var id : ids) service.get(id);
+        }
+    }
+
+    @Override
+    public void close() {
+        context.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+        log.info("Lookups: {}, round trips: {}, lookups per round trip: {}", lookups.get(), roundTrips.get(),
+                roundTrips.get() == 0 ? 0 : (double) lookups.get() / roundTrips.get());
+    }
+
+    // ids come as 'ids=a&ids=b' from Feign, 'ids=a,b' is accepted as well
+    private void handle(HttpExchange exchange) throws IOException {
+        roundTrips.incrementAndGet();
+        try {
+            Thread.sleep(LATENCY_MS);
+            var items = new ArrayList<BenchDto>();
+            for (var param : exchange.getRequestURI().getQuery().split("&")) {
+                if (!param.startsWith("ids=")) continue;
+                for (var id : param.substring("ids=".length()).split(",")) {
+                    items.add(new BenchDto(UUID.fromString(id), "name", "description", 1L, 1.5d, true, Instant.EPOCH, List.of()));
+                }
+            }
+            var body = mapper.writeValueAsBytes(Rest.of(items));
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    public interface ItemClient {
+        @GetMapping("/items")
+        Rest<BenchDto> getByIds(@RequestParam("ids") List<UUID> ids);
+    }
+
+    public static final class ItemService extends AbstractRestService {
+        private final ItemClient client;
+        private final BatchLoader<UUID, BenchDto> loader;
+
+        private ItemService(ItemClient client) {
+            this.client = client;
+            this.loader = batchLoader("items", client::getByIds, BenchDto::getId, MAX_BATCH_SIZE, WINDOW);
+        }
+
+        private BenchDto get(UUID id) {
+            return singleResult(() -> client.getByIds(List.of(id)));
+        }
+
+        private CompletableFuture<List<BenchDto>> getAll(List<UUID> ids) {
+            return loader.loadAll(ids);
+        }
+    }
+
+    public static class ClientConfiguration extends AbstractHttpClientAutoConfiguration {
+
+        @Bean
+        public HttpMessageConverters httpMessageConverters(ObjectMapper objectMapper) {
+            return new HttpMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper));
+        }
+
+        @Bean
+        public ItemService itemService(@Value("${" + URL_PROPERTY + "}") String url) {
+            return new ItemService(buildClient(url, ItemClient.class, "items"));
+        }
+
+        // the stub does not check tokens
+        @Override
+        protected RequestInterceptor jwtAuthInterceptor() {
+            return template -> {
+            };
+        }
+    }
+}